@@ -144,8 +144,21 @@ export const useLiteratureStore = defineStore('literature', {
       }
     },
     
-    // 更新可用标签列表
-    updateAvailableTags() {
+    // 更新可用标签列表（全库标签统计，失败时退回当前页的标签）
+    async updateAvailableTags() {
+      try {
+        const response = await axios.get('/api/literature/tags/facets')
+        if (response.data.success) {
+          this.availableTags = (response.data.data || []).map(facet => ({
+            label: `${facet.tag} (${facet.count})`,
+            value: facet.tag
+          }))
+          return
+        }
+      } catch (error) {
+        console.error('获取标签统计失败:', error)
+      }
+
       const tagSet = new Set()
       this.literatureList.forEach(literature => {
         if (literature.tags && Array.isArray(literature.tags)) {
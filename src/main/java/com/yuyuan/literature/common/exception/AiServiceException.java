@@ -0,0 +1,43 @@
+package com.yuyuan.literature.common.exception;
+
+import com.yuyuan.literature.common.result.ResultCode;
+
+/**
+ * AI 服务调用异常类
+ * <p>
+ * 记录本次失败是否可重试（限流、服务端错误、网络异常），以及服务端通过 Retry-After 要求的等待时间。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+public class AiServiceException extends BusinessException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否可重试
+     */
+    private final boolean retryable;
+
+    /**
+     * 服务端要求的重试等待时间（毫秒），未指定时为 0
+     */
+    private final long retryAfterMillis;
+
+    /**
+     * 构造方法
+     */
+    public AiServiceException(ResultCode resultCode, String message, boolean retryable, long retryAfterMillis) {
+        super(resultCode, message);
+        this.retryable = retryable;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,69 @@
+package com.yuyuan.literature.common.request;
+
+import com.yuyuan.literature.common.exception.BusinessException;
+import com.yuyuan.literature.common.result.ResultCode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页位置
+ * <p>
+ * 记录上一页最后一条记录的 (创建时间, ID) 和排序方向，编码为不透明的 URL 安全字符串返回给客户端，
+ * 下一页查询直接按该位置定位，耗时与翻到第几页无关。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Data
+@AllArgsConstructor
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 上一页最后一条记录的创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 上一页最后一条记录的 ID
+     */
+    private Long id;
+
+    /**
+     * 是否升序
+     */
+    private boolean asc;
+
+    /**
+     * 编码为游标字符串
+     */
+    public String encode() {
+        String raw = (asc ? "A" : "D") + SEPARATOR + createTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param cursor 游标字符串
+     * @return 游标位置
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !("A".equals(parts[0]) || "D".equals(parts[0]))) {
+                throw new IllegalArgumentException(raw);
+            }
+            return new PageCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]), "A".equals(parts[0]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "无效的分页游标");
+        }
+    }
+}
@@ -67,6 +67,18 @@ public class PageResult<T> implements Serializable {
     @Schema(description = "是否有上一页", example = "false")
     private Boolean hasPrev;
 
+    /**
+     * 下一页游标（游标分页）
+     */
+    @Schema(description = "下一页游标，没有下一页时为空")
+    private String nextCursor;
+
+    /**
+     * 结果是否被截断（关键词命中数超过检索上限，只在相关度最高的部分命中中过滤和排序）
+     */
+    @Schema(description = "结果是否被截断：关键词命中数超过检索上限时为 true，仅在相关度最高的部分命中中过滤和排序")
+    private Boolean truncated;
+
     /**
      * 构造方法
      */
@@ -114,4 +126,22 @@ public class PageResult<T> implements Serializable {
     public static <T> PageResult<T> of(List<T> records, Long total, Integer pageNum, Integer pageSize) {
         return new PageResult<>(records, total, pageNum, pageSize);
     }
+
+    /**
+     * 创建游标分页结果
+     *
+     * @param records    数据列表
+     * @param total      总记录数，未统计时为 null
+     * @param pageSize   每页大小
+     * @param nextCursor 下一页游标，没有下一页时为 null
+     */
+    public static <T> PageResult<T> ofCursor(List<T> records, Long total, Integer pageSize, String nextCursor) {
+        PageResult<T> result = new PageResult<>();
+        result.setRecords(records);
+        result.setTotal(total);
+        result.setPageSize(pageSize);
+        result.setNextCursor(nextCursor);
+        result.setHasNext(nextCursor != null);
+        return result;
+    }
 }
@@ -0,0 +1,319 @@
+package com.yuyuan.literature.common.sse;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * 可续传的 SSE 事件流
+ * <p>
+ * 生成端只向该对象写入事件，不直接持有客户端连接。每个事件分配递增的 id 并保存在环形缓冲区中，
+ * 同时分发给所有已连接的客户端（零个或多个，例如多个标签页或状态页）。
+ * 客户端断开不影响生成，重新连接时携带 Last-Event-ID，先补发缓冲区中该 id 之后的事件再继续实时推送。
+ * <p>
+ * 写入只在锁内追加缓冲区并放入各客户端的待发送队列，实际发送由每个客户端独立的虚拟线程完成，
+ * 慢客户端不会阻塞上游读取和其他客户端；待发送队列超出上限的客户端被断开，可凭 Last-Event-ID 续传。
+ * 内容事件从缓冲区淘汰后保留原文，首次连接的客户端先收到已淘汰内容合并成的一帧，再接收缓冲区中的事件。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+public class ResumableSseStream {
+
+    /**
+     * 向客户端发送事件的阻塞写入在虚拟线程中执行
+     */
+    private static final Executor DELIVERY_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final String id;
+    private final SseContentProtocol protocol;
+    private final int capacity;
+
+    private final Deque<BufferedEvent> buffer;
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    /**
+     * 已从缓冲区淘汰的内容事件原文（按顺序拼接）
+     */
+    private final StringBuilder evictedContent = new StringBuilder();
+    private String contentEventName;
+    private long evictedContentSequence = -1;
+
+    private long latestEventId;
+    private long contentSequence;
+    private boolean finished;
+    private Throwable failure;
+
+    /**
+     * @param id       流ID
+     * @param protocol 内容事件协议（续传时沿用）
+     * @param capacity 缓冲的最大事件数，超出后丢弃最早的事件；也是每个客户端待发送队列的上限
+     */
+    public ResumableSseStream(String id, SseContentProtocol protocol, int capacity) {
+        this.id = id;
+        this.protocol = protocol;
+        this.capacity = Math.max(1, capacity);
+        this.buffer = new ArrayDeque<>(Math.min(this.capacity, 256));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public SseContentProtocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * 流结束时完成（正常完成或以异常结束），与客户端是否在线无关
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * 发送事件：写入缓冲区并分发给所有客户端，流结束后的事件直接忽略
+     *
+     * @param name 事件名称
+     * @param data 事件数据
+     */
+    public void send(String name, String data) {
+        append(name, data, null, -1);
+    }
+
+    /**
+     * 发送内容事件：按内容事件协议编码，帧序号在流内递增
+     *
+     * @param name    事件名称
+     * @param content 内容原文
+     */
+    public synchronized void sendContent(String name, String content) {
+        long sequence = contentSequence++;
+        append(name, protocol.encode(content, sequence), content, sequence);
+    }
+
+    private synchronized void append(String name, String data, String content, long sequence) {
+        if (finished) {
+            log.debug("SSE 流已结束，忽略事件，流ID: {}, 事件: {}", id, name);
+            return;
+        }
+        BufferedEvent event = new BufferedEvent(++latestEventId, name, data, content, sequence);
+        if (buffer.size() == capacity) {
+            evict(buffer.pollFirst());
+        }
+        buffer.addLast(event);
+        for (Subscriber subscriber : List.copyOf(subscribers)) {
+            if (!subscriber.offer(event)) {
+                log.warn("SSE 客户端接收过慢，待发送事件超过 {} 条，断开连接，流ID: {}", capacity, id);
+                subscribers.remove(subscriber);
+                subscriber.abort();
+            }
+        }
+    }
+
+    private void evict(BufferedEvent event) {
+        if (event.content() != null) {
+            evictedContent.append(event.content());
+            contentEventName = event.name();
+            evictedContentSequence = event.sequence();
+        }
+    }
+
+    /**
+     * 正常结束，所有客户端发送完剩余事件后关闭连接
+     */
+    public void complete() {
+        finish(null);
+    }
+
+    /**
+     * 以异常结束，所有客户端发送完剩余事件后关闭连接
+     *
+     * @param throwable 异常
+     */
+    public void completeWithError(Throwable throwable) {
+        finish(throwable);
+    }
+
+    /**
+     * 连接客户端：续传时补发 lastEventId 之后的事件；首次连接时先发送已淘汰内容合并成的一帧，再补发缓冲区中的全部事件。
+     * 流已结束时补发后关闭连接
+     *
+     * @param emitter     客户端 SSE 发射器
+     * @param lastEventId 客户端已收到的最后一个事件 id，首次连接传 null
+     * @return 续传所需的事件已被淘汰时返回 false，此时不会连接
+     */
+    public synchronized boolean attach(SseEmitter emitter, Long lastEventId) {
+        BufferedEvent first = buffer.peekFirst();
+        long evictedUpTo = first == null ? latestEventId : first.id() - 1;
+        if (lastEventId != null && lastEventId < evictedUpTo) {
+            return false;
+        }
+
+        // 待发送队列需容纳补发的全部事件和快照帧
+        Subscriber subscriber = new Subscriber(emitter, capacity + 1);
+        long from = lastEventId == null ? 0 : lastEventId;
+        if (lastEventId == null && !evictedContent.isEmpty()) {
+            String snapshot = evictedContent.toString();
+            subscriber.offer(new BufferedEvent(evictedUpTo, contentEventName,
+                    protocol.encode(snapshot, evictedContentSequence), snapshot, evictedContentSequence));
+        }
+        for (BufferedEvent event : buffer) {
+            if (event.id() > from) {
+                subscriber.offer(event);
+            }
+        }
+
+        if (finished) {
+            subscriber.closeAfterDrain(failure);
+        } else {
+            subscribers.add(subscriber);
+            emitter.onCompletion(() -> detach(subscriber));
+            emitter.onTimeout(() -> detach(subscriber));
+            emitter.onError(throwable -> detach(subscriber));
+        }
+        return true;
+    }
+
+    private synchronized void detach(Subscriber subscriber) {
+        subscriber.discard();
+        if (subscribers.remove(subscriber) && !finished) {
+            log.info("SSE 客户端断开，生成继续进行，流ID: {}, 剩余连接: {}", id, subscribers.size());
+        }
+    }
+
+    private void finish(Throwable throwable) {
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            failure = throwable;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.closeAfterDrain(throwable);
+            }
+            subscribers.clear();
+        }
+        if (throwable == null) {
+            completion.complete(null);
+        } else {
+            completion.completeExceptionally(throwable);
+        }
+    }
+
+    private record BufferedEvent(long id, String name, String data, String content, long sequence) {
+    }
+
+    /**
+     * 客户端连接：独立的有界待发送队列，同一时间至多一个虚拟线程按顺序发送
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final int limit;
+        private final Deque<BufferedEvent> pending = new ArrayDeque<>();
+
+        private boolean draining;
+        private boolean closing;
+        private boolean closed;
+        private Throwable closeError;
+
+        private Subscriber(SseEmitter emitter, int limit) {
+            this.emitter = emitter;
+            this.limit = limit;
+        }
+
+        /**
+         * 放入待发送队列
+         *
+         * @return 队列已满时返回 false
+         */
+        synchronized boolean offer(BufferedEvent event) {
+            if (closed) {
+                return true;
+            }
+            if (pending.size() >= limit) {
+                return false;
+            }
+            pending.addLast(event);
+            schedule();
+            return true;
+        }
+
+        /**
+         * 发送完剩余事件后关闭连接
+         */
+        synchronized void closeAfterDrain(Throwable error) {
+            closing = true;
+            closeError = error;
+            schedule();
+        }
+
+        /**
+         * 丢弃未发送的事件并关闭连接（客户端续传时补发）
+         * <p>
+         * 只有发送线程阻塞在停滞的连接上时才会中止，而 emitter 的 send 和 complete 持有同一把锁，
+         * complete 要等该次发送超时才能返回；调用方持有流的锁，因此关闭连接交给虚拟线程执行。
+         */
+        void abort() {
+            discard();
+            DELIVERY_EXECUTOR.execute(emitter::complete);
+        }
+
+        synchronized void discard() {
+            closed = true;
+            pending.clear();
+        }
+
+        private void schedule() {
+            if (!draining && !closed) {
+                draining = true;
+                DELIVERY_EXECUTOR.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                BufferedEvent event;
+                synchronized (this) {
+                    event = closed ? null : pending.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        if (!closing || closed) {
+                            return;
+                        }
+                        closed = true;
+                    }
+                }
+                if (event == null) {
+                    if (closeError == null) {
+                        emitter.complete();
+                    } else {
+                        emitter.completeWithError(closeError);
+                    }
+                    return;
+                }
+                try {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.id()))
+                            .name(event.name())
+                            .data(event.data()));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("转发 SSE 事件失败，流ID: {}, 原因: {}", id, e.getMessage());
+                    detach(this);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.yuyuan.literature.common.sse;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * SSE 内容事件协议版本
+ * <p>
+ * 客户端通过请求参数 protocol 选择版本，服务端在响应头 {@link #HEADER} 中返回实际使用的版本；
+ * 未指定或不支持的版本使用 {@link #LEGACY}，旧版前端无需改动。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+public enum SseContentProtocol {
+
+    /**
+     * 版本 1：换行和空格替换为 &lt;empty-line&gt; / &lt;empty-space&gt; 占位符
+     */
+    LEGACY(1) {
+        @Override
+        public String encode(String content, long sequence) {
+            return content.replace("\n", "<empty-line>").replace(" ", "<empty-space>");
+        }
+    },
+
+    /**
+     * 版本 2：JSON 帧 {"s":序号,"d":"内容"}，内容按 JSON 规则转义，序号从 0 开始逐帧递增
+     */
+    JSON(2) {
+        @Override
+        public String encode(String content, long sequence) {
+            char[] escaped = JsonStringEncoder.getInstance().quoteAsString(content);
+            return new StringBuilder(escaped.length + 32)
+                    .append("{\"s\":").append(sequence)
+                    .append(",\"d\":\"").append(escaped).append("\"}")
+                    .toString();
+        }
+    };
+
+    /**
+     * 返回协议版本的响应头
+     */
+    public static final String HEADER = "X-Stream-Protocol";
+
+    private final int version;
+
+    SseContentProtocol(int version) {
+        this.version = version;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * 编码一帧内容
+     *
+     * @param content  合并后的内容
+     * @param sequence 帧序号
+     * @return 事件数据
+     */
+    public abstract String encode(String content, long sequence);
+
+    /**
+     * 按客户端请求的版本选择协议
+     *
+     * @param version 请求的版本，可为 null
+     * @return 协议，不支持的版本返回 {@link #LEGACY}
+     */
+    public static SseContentProtocol of(Integer version) {
+        if (version != null) {
+            for (SseContentProtocol protocol : values()) {
+                if (protocol.version == version) {
+                    return protocol;
+                }
+            }
+        }
+        return LEGACY;
+    }
+}
@@ -0,0 +1,237 @@
+package com.yuyuan.literature.common.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件传输工具类
+ * <p>
+ * 容器支持 sendfile 时（Tomcat NIO/NIO2 连接器、非 TLS），只设置请求属性，
+ * 由 Tomcat 在请求处理结束后通过 sendfile 直接从内核页缓存写入套接字，文件字节不进入 JVM 堆。
+ * 不支持时回退为 {@link FileChannel#transferTo}，按块写入响应输出流。
+ * 支持 HTTP Range 请求（单区间和多区间），浏览器 PDF 阅读器可以按需加载页面，无需等待整个文件下载完成。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+public class FileTransferUtils {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 小于该大小的文件直接复制，sendfile 的额外开销不划算（与 Tomcat DefaultServlet 的默认值一致）
+     */
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    /**
+     * 私有构造方法
+     */
+    private FileTransferUtils() {
+    }
+
+    /**
+     * 输出整个文件，调用方需先设置好响应头（Content-Length 由本方法设置）
+     *
+     * @param request  HTTP 请求
+     * @param response HTTP 响应
+     * @param file     文件
+     */
+    public static void transfer(HttpServletRequest request, HttpServletResponse response, File file) throws IOException {
+        transfer(request, response, file, 0, file.length());
+    }
+
+    /**
+     * 输出文件的指定区间，调用方需先设置好响应头（Content-Length 由本方法设置）
+     *
+     * @param request  HTTP 请求
+     * @param response HTTP 响应
+     * @param file     文件
+     * @param start    起始字节位置
+     * @param length   字节数
+     */
+    public static void transfer(HttpServletRequest request, HttpServletResponse response, File file,
+                                long start, long length) throws IOException {
+        response.setContentLengthLong(length);
+        if (length >= SENDFILE_MIN_SIZE && isSendfileSupported(request) && !response.isCommitted()) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + length);
+            log.debug("使用 sendfile 输出文件: {}, 区间: {}-{}", file.getName(), start, start + length - 1);
+            return;
+        }
+
+        OutputStream outputStream = response.getOutputStream();
+        writeRange(file, start, length, Channels.newChannel(outputStream));
+        outputStream.flush();
+    }
+
+    /**
+     * 按请求的 Range 头输出文件：无 Range 时输出整个文件（200），
+     * 单区间返回 206 和 Content-Range，多区间返回 206 multipart/byteranges，无法满足时返回 416。
+     * 调用方需先设置 Content-Type 等响应头，If-Range 按响应中已设置的 ETag 或文件修改时间校验。
+     *
+     * @param request  HTTP 请求
+     * @param response HTTP 响应
+     * @param file     文件
+     */
+    public static void transferRanges(HttpServletRequest request, HttpServletResponse response, File file) throws IOException {
+        long fileLength = file.length();
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !isIfRangeSatisfied(request, response, file)) {
+            transfer(request, response, file);
+            return;
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // 语法错误的 Range 头按规范忽略
+            log.debug("忽略无效的 Range 请求头: {}", rangeHeader);
+            transfer(request, response, file);
+            return;
+        }
+
+        List<long[]> regions = new ArrayList<>(ranges.size());
+        long totalLength = 0;
+        for (HttpRange range : ranges) {
+            try {
+                long start = range.getRangeStart(fileLength);
+                long end = range.getRangeEnd(fileLength);
+                regions.add(new long[]{start, end});
+                totalLength += end - start + 1;
+            } catch (IllegalArgumentException e) {
+                // 起始位置超出文件长度的区间不可满足
+            }
+        }
+        if (regions.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength);
+            return;
+        }
+        if (totalLength > fileLength) {
+            // 大量重叠区间会放大传输量，直接返回整个文件
+            transfer(request, response, file);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (regions.size() == 1) {
+            long[] region = regions.get(0);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(region, fileLength));
+            transfer(request, response, file, region[0], region[1] - region[0] + 1);
+            return;
+        }
+        writeMultipartRanges(response, file, regions, fileLength);
+    }
+
+    /**
+     * 输出 multipart/byteranges 响应体
+     */
+    private static void writeMultipartRanges(HttpServletResponse response, File file, List<long[]> regions,
+                                             long fileLength) throws IOException {
+        String partContentType = response.getContentType();
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+
+        List<byte[]> partHeaders = new ArrayList<>(regions.size());
+        long contentLength = 0;
+        for (long[] region : regions) {
+            StringBuilder header = new StringBuilder("\r\n--").append(boundary).append("\r\n");
+            if (partContentType != null) {
+                header.append(HttpHeaders.CONTENT_TYPE).append(": ").append(partContentType).append("\r\n");
+            }
+            header.append(HttpHeaders.CONTENT_RANGE).append(": ").append(contentRange(region, fileLength)).append("\r\n\r\n");
+            byte[] bytes = header.toString().getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(bytes);
+            contentLength += bytes.length + region[1] - region[0] + 1;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+
+        OutputStream outputStream = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(outputStream);
+        for (int i = 0; i < regions.size(); i++) {
+            long[] region = regions.get(i);
+            outputStream.write(partHeaders.get(i));
+            writeRange(file, region[0], region[1] - region[0] + 1, channel);
+        }
+        outputStream.write(closing);
+        outputStream.flush();
+    }
+
+    /**
+     * If-Range 校验：未携带或与当前 ETag / 修改时间一致时才按区间返回，否则返回整个文件
+     */
+    private static boolean isIfRangeSatisfied(HttpServletRequest request, HttpServletResponse response, File file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // 区间请求只接受强校验
+            return ifRange.equals(response.getHeader(HttpHeaders.ETAG));
+        }
+        try {
+            long ifRangeTime = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return ifRangeTime / 1000 == file.lastModified() / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String contentRange(long[] region, long fileLength) {
+        return "bytes " + region[0] + "-" + region[1] + "/" + fileLength;
+    }
+
+    /**
+     * 通过 {@link FileChannel#transferTo} 将文件区间写入目标通道
+     *
+     * @param file   文件
+     * @param start  起始字节位置
+     * @param length 字节数
+     * @param target 目标通道
+     */
+    public static void writeRange(File file, long start, long length, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    // 文件在传输过程中被截断
+                    throw new IOException("文件传输中断: " + file.getName());
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private static boolean isSendfileSupported(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR));
+    }
+}
@@ -0,0 +1,129 @@
+package com.yuyuan.literature.config;
+
+import com.yuyuan.literature.service.ai.AiHttpClientMetrics;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI HTTP 客户端配置
+ * <p>
+ * 所有 Kimi 请求共享同一个 OkHttpClient。OkHttp 默认每个主机最多 5 个异步调用、最多保留 5 个空闲连接，
+ * 流式生成（异步 SSE）会在此处被静默限流，因此连接池和分发器上限均改为可配置。
+ * 启动后预先建立到 AI 服务的连接，首个请求无需再等待 TLS 握手。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Configuration
+public class AiHttpClientConfig {
+
+    @Value("${literature.ai.base-url:https://api.moonshot.cn/v1}")
+    private String baseUrl;
+
+    @Value("${literature.ai.http.max-requests:128}")
+    private int maxRequests;
+
+    @Value("${literature.ai.http.max-requests-per-host:64}")
+    private int maxRequestsPerHost;
+
+    @Value("${literature.ai.http.max-idle-connections:16}")
+    private int maxIdleConnections;
+
+    @Value("${literature.ai.http.keep-alive:300000}")
+    private long keepAlive;
+
+    @Value("${literature.ai.http.connect-timeout:30000}")
+    private long connectTimeout;
+
+    @Value("${literature.ai.http.read-timeout:300000}")
+    private long readTimeout;
+
+    @Value("${literature.ai.http.write-timeout:30000}")
+    private long writeTimeout;
+
+    @Value("${literature.ai.http.http2-enabled:true}")
+    private boolean http2Enabled;
+
+    @Value("${literature.ai.http.warm-up:true}")
+    private boolean warmUp;
+
+    /**
+     * AI 服务 HTTP 客户端
+     */
+    @Bean
+    public OkHttpClient aiHttpClient(AiHttpClientMetrics aiHttpClientMetrics) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+        // HTTP/2 下同一主机的请求复用少量连接多路传输，HTTP/1.1 下每个并发请求占用一个连接
+        List<Protocol> protocols = http2Enabled
+                ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_1_1);
+
+        log.info("AI HTTP 客户端配置，最大请求数: {}, 单主机最大请求数: {}, 最大空闲连接: {}, 协议: {}",
+                maxRequests, maxRequestsPerHost, maxIdleConnections, protocols);
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive, TimeUnit.MILLISECONDS))
+                .protocols(protocols)
+                .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+                .writeTimeout(writeTimeout, TimeUnit.MILLISECONDS)
+                .eventListener(aiHttpClientMetrics)
+                // 确保使用 UTF-8 编码
+                .addInterceptor(chain -> {
+                    Request original = chain.request();
+                    Request.Builder requestBuilder = original.newBuilder()
+                            .header("Accept-Charset", "UTF-8");
+                    return chain.proceed(requestBuilder.build());
+                })
+                .build();
+    }
+
+    /**
+     * 启动完成后预热连接（DNS 解析、TCP 和 TLS 握手），失败不影响启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpConnection(ApplicationReadyEvent event) {
+        if (!warmUp) {
+            return;
+        }
+        OkHttpClient client = event.getApplicationContext().getBean("aiHttpClient", OkHttpClient.class);
+        Request request = new Request.Builder()
+                .url(baseUrl + "/models")
+                .head()
+                .build();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    log.info("AI 服务连接预热完成，协议: {}, 状态码: {}", response.protocol(), response.code());
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                log.warn("AI 服务连接预热失败: {}", e.getMessage());
+            }
+        });
+    }
+}
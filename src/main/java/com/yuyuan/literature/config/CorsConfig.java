@@ -61,7 +61,10 @@ public class CorsConfig implements WebMvcConfigurer {
                 "X-Requested-With",
                 "X-Request-ID",
                 "X-Client-Version",
-                "X-Device-Type"
+                "X-Device-Type",
+                "Range",
+                "If-Range",
+                "Last-Event-ID"
         ));
         
         // 允许的请求方法
@@ -79,7 +82,12 @@ public class CorsConfig implements WebMvcConfigurer {
         configuration.setExposedHeaders(Arrays.asList(
                 "Access-Control-Allow-Origin",
                 "Access-Control-Allow-Credentials",
-                "Content-Disposition"
+                "Content-Disposition",
+                "Accept-Ranges",
+                "Content-Range",
+                "Content-Length",
+                "X-Stream-Protocol",
+                "X-Stream-Id"
         ));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -3,13 +3,22 @@ package com.yuyuan.literature.controller;
 import cn.hutool.core.util.StrUtil;
 import com.yuyuan.literature.common.request.PageResult;
 import com.yuyuan.literature.common.result.Result;
+import com.yuyuan.literature.common.sse.ResumableSseStream;
+import com.yuyuan.literature.common.sse.SseContentProtocol;
 import com.yuyuan.literature.dto.BatchLiteratureImportRequest;
 import com.yuyuan.literature.dto.LiteratureQueryRequest;
 import com.yuyuan.literature.dto.LiteratureVO;
+import com.yuyuan.literature.dto.StoredFile;
+import com.yuyuan.literature.dto.TagFacetVO;
 import com.yuyuan.literature.entity.Literature;
+import com.yuyuan.literature.service.ExtractedText;
+import com.yuyuan.literature.service.ExtractedTextStore;
 import com.yuyuan.literature.service.FileProcessingService;
+import com.yuyuan.literature.service.GuideGenerationManager;
+import com.yuyuan.literature.service.GuideGenerationSession;
 import com.yuyuan.literature.service.LiteratureAiService;
 import com.yuyuan.literature.service.LiteratureService;
+import com.yuyuan.literature.service.LiteratureTagService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +31,8 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -44,8 +55,11 @@ import java.util.concurrent.TimeUnit;
 public class LiteratureController {
 
     private final FileProcessingService fileProcessingService;
+    private final ExtractedTextStore extractedTextStore;
     private final LiteratureAiService literatureAiService;
     private final LiteratureService literatureService;
+    private final LiteratureTagService literatureTagService;
+    private final GuideGenerationManager guideGenerationManager;
 
     /**
      * 生成文献阅读指南
@@ -55,19 +69,33 @@ public class LiteratureController {
      * @return SSE 流式响应
      */
     @PostMapping(value = "/generate-guide", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    @Operation(summary = "生成文献阅读指南", description = "上传文献文件，AI 生成阅读指南（SSE 流式响应）")
+    @Operation(summary = "生成文献阅读指南",
+            description = "上传文献文件，AI 生成阅读指南（SSE 流式响应）；响应头 X-Stream-Id 为流ID，断线后用于续传")
     public SseEmitter generateReadingGuide(
             @Parameter(description = "文献文件（支持 PDF、Word、Markdown）", required = true)
             @RequestParam("file") MultipartFile file,
             @Parameter(description = "Kimi AI API Key", required = true)
-            @RequestParam("apiKey") @NotBlank(message = "API Key 不能为空") String apiKey) {
+            @RequestParam("apiKey") @NotBlank(message = "API Key 不能为空") String apiKey,
+            @Parameter(description = "内容事件协议版本：1-占位符替换（默认），2-JSON 帧")
+            @RequestParam(value = "protocol", required = false) Integer protocolVersion,
+            jakarta.servlet.http.HttpServletResponse response) {
 
         log.info("开始生成文献阅读指南，文件名: {}, 文件大小: {} bytes",
                 file.getOriginalFilename(), file.getSize());
 
+        // 协商内容事件协议，实际使用的版本通过响应头告知前端
+        SseContentProtocol protocol = SseContentProtocol.of(protocolVersion);
+        response.setHeader(SseContentProtocol.HEADER, String.valueOf(protocol.getVersion()));
+
         // 创建 SSE 发射器，设置超时时间为 10 分钟
         SseEmitter sseEmitter = new SseEmitter(TimeUnit.MINUTES.toMillis(10));
 
+        // 生成由会话持有，事件先写入可续传的流再分发给客户端，客户端断线后可凭会话ID续传
+        GuideGenerationSession session = guideGenerationManager.create(protocol);
+        ResumableSseStream stream = session.getStream();
+        response.setHeader(GuideGenerationManager.HEADER, session.getId());
+        stream.attach(sseEmitter, null);
+
         Long literatureId = null;
         String filePath = null;
 
@@ -76,89 +104,130 @@ public class LiteratureController {
             literatureAiService.validateApiKey(apiKey);
 
             // 发送开始事件
-            sseEmitter.send(SseEmitter.event()
-                    .name("start")
-                    .data("开始处理文献文件..."));
+            stream.send("start", "开始处理文献文件...");
 
             // 保存文件
-            filePath = fileProcessingService.saveFile(file);
+            StoredFile storedFile = fileProcessingService.saveFile(file);
+            filePath = storedFile.getFilePath();
+
+            // 相同内容的文献已有阅读指南时，复用阅读指南，跳过解析和 AI 调用；
+            // 新记录提交后再改为引用已存储的文件，来源文献在此期间被删除时保留本次上传的副本
+            Literature duplicate = literatureService.findReusableLiterature(storedFile.getContentHash());
+            if (duplicate != null && StrUtil.isNotBlank(duplicate.getReadingGuide())) {
+                stream.send("progress", "检测到相同文献，复用已有阅读指南...");
+
+                literatureId = literatureService.createFromDuplicate(
+                        file, filePath, storedFile.getContentHash(), duplicate, apiKey);
+                literatureService.shareStoredFile(literatureId, filePath, duplicate.getFilePath());
+                literatureAiService.replayReadingGuide(duplicate.getReadingGuide(), stream);
+                return sseEmitter;
+            }
 
             // 发送文件保存成功事件
-            sseEmitter.send(SseEmitter.event()
-                    .name("progress")
-                    .data("文件保存成功，开始解析内容..."));
+            stream.send("progress", "文件保存成功，开始解析内容...");
 
-            // 解析文件内容
-            String fileContent = fileProcessingService.extractFileContent(filePath);
+            // 获取文件内容（优先读取已存储的提取文本，避免重复解析）
+            ExtractedText document = extractedTextStore.getOrExtract(filePath);
 
             // 创建文献记录
-            literatureId = literatureService.createLiterature(file, filePath, fileContent.length());
+            literatureId = literatureService.createLiterature(file, filePath, storedFile.getContentHash(), document.length());
 
             // 发送内容解析成功事件
-            sseEmitter.send(SseEmitter.event()
-                    .name("progress")
-                    .data("内容解析成功，开始生成阅读指南..."));
-
-            // 创建内容收集器
-            StringBuilder readingGuideBuilder = new StringBuilder();
-
-            // 异步生成阅读指南（带内容收集）
-            literatureAiService.generateReadingGuideStream(apiKey, fileContent, sseEmitter, readingGuideBuilder);
-
-            // 设置 SSE 完成回调，在阅读指南完成后启动分类
-            final String finalFilePath = filePath;
-            final Long finalLiteratureId = literatureId;
-
-            sseEmitter.onCompletion(() -> {
-                log.info("阅读指南生成完成，开始后台分类处理");
-
-                // 保存阅读指南到数据库
-                String readingGuide = readingGuideBuilder.toString();
-                if (StrUtil.isNotBlank(readingGuide)) {
-                    literatureService.updateReadingGuide(finalLiteratureId, readingGuide);
-
-                    // 使用虚拟线程进行后台分类
-                    literatureAiService.generateClassificationWithVirtualThread(
-                            apiKey, readingGuide, finalLiteratureId, literatureService);
-                } else {
-                    log.warn("阅读指南内容为空，跳过分类处理");
-                    literatureService.updateStatus(finalLiteratureId, Literature.Status.COMPLETED.getCode());
-                }
-            });
-
-            sseEmitter.onError((throwable) -> {
-                log.error("文献阅读指南生成失败，文件: {}", file.getOriginalFilename(), throwable);
-                if (finalLiteratureId != null) {
-                    literatureService.updateStatus(finalLiteratureId, Literature.Status.FAILED.getCode());
-                }
-            });
-
-            sseEmitter.onTimeout(() -> {
-                log.warn("文献阅读指南生成超时，文件: {}", file.getOriginalFilename());
-                if (finalLiteratureId != null) {
-                    literatureService.updateStatus(finalLiteratureId, Literature.Status.FAILED.getCode());
-                }
-            });
+            stream.send("progress", "内容解析成功，开始生成阅读指南...");
+
+            // 异步生成阅读指南，结束后由会话管理保存阅读指南并启动分类，与客户端是否在线无关
+            guideGenerationManager.start(session, literatureId, apiKey, document);
 
         } catch (Exception e) {
             log.error("处理文献文件失败", e);
             if (literatureId != null) {
                 literatureService.updateStatus(literatureId, Literature.Status.FAILED.getCode());
             }
-            try {
-                sseEmitter.send(SseEmitter.event()
-                        .name("error")
-                        .data("处理失败: " + e.getMessage()));
-                sseEmitter.completeWithError(e);
-            } catch (IOException ioException) {
-                log.error("发送错误消息失败", ioException);
-                sseEmitter.completeWithError(ioException);
-            }
+            stream.send("error", "处理失败: " + e.getMessage());
+            stream.completeWithError(e);
+        }
+
+        return sseEmitter;
+    }
+
+    /**
+     * 续传阅读指南生成流
+     *
+     * @param streamId    会话ID（生成请求响应头 X-Stream-Id）
+     * @param lastEventId 客户端已收到的最后一个事件 id
+     * @return SSE 流式响应，先补发 lastEventId 之后的事件再继续实时推送
+     */
+    @GetMapping(value = "/generate-guide/{streamId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "续传阅读指南生成流", description = "断线后携带 Last-Event-ID 重新连接，补发缺失的事件并继续接收")
+    public SseEmitter resumeReadingGuide(
+            @Parameter(description = "会话ID", required = true)
+            @PathVariable String streamId,
+            @Parameter(description = "已收到的最后一个事件 id")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            jakarta.servlet.http.HttpServletResponse response) throws IOException {
+
+        GuideGenerationSession session = guideGenerationManager.get(streamId);
+        if (session == null) {
+            log.warn("续传失败，生成会话不存在或已过期，会话ID: {}", streamId);
+        }
+        return attachSession(session, lastEventId, response);
+    }
+
+    /**
+     * 连接文献进行中的阅读指南生成
+     *
+     * @param id          文献ID
+     * @param lastEventId 客户端已收到的最后一个事件 id，首次连接不传
+     * @return SSE 流式响应，先补发已生成的事件再继续实时推送
+     */
+    @GetMapping(value = "/{id}/guide-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "连接进行中的阅读指南生成",
+            description = "按文献ID连接正在进行的生成（多标签页、状态页），补发已生成的事件并继续接收；生成结束一段时间后不可连接")
+    public SseEmitter attachReadingGuide(
+            @Parameter(description = "文献ID", required = true)
+            @PathVariable @NotNull(message = "文献ID不能为空") Long id,
+            @Parameter(description = "已收到的最后一个事件 id")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            jakarta.servlet.http.HttpServletResponse response) throws IOException {
+
+        GuideGenerationSession session = guideGenerationManager.getByLiteratureId(id);
+        if (session == null) {
+            log.info("文献没有进行中的阅读指南生成，文献ID: {}", id);
+        }
+        return attachSession(session, lastEventId, response);
+    }
+
+    /**
+     * 将新的客户端连接到生成会话，会话不存在或缺失的事件已无法补发时发送错误事件
+     */
+    private SseEmitter attachSession(GuideGenerationSession session, Long lastEventId,
+                                     jakarta.servlet.http.HttpServletResponse response) throws IOException {
+        SseEmitter sseEmitter = new SseEmitter(TimeUnit.MINUTES.toMillis(10));
+        if (session == null) {
+            sendAttachError(sseEmitter, "生成任务不存在或已过期，请重新生成");
+            return sseEmitter;
+        }
+
+        ResumableSseStream stream = session.getStream();
+        response.setHeader(SseContentProtocol.HEADER, String.valueOf(stream.getProtocol().getVersion()));
+        response.setHeader(GuideGenerationManager.HEADER, session.getId());
+        if (!stream.attach(sseEmitter, lastEventId)) {
+            log.warn("连接生成会话失败，缺失的事件已超出缓冲区，会话ID: {}, Last-Event-ID: {}", session.getId(), lastEventId);
+            sendAttachError(sseEmitter, "缺失的内容已无法补发，请刷新后查看");
+            return sseEmitter;
         }
 
+        log.info("连接阅读指南生成会话，会话ID: {}, 文献ID: {}, Last-Event-ID: {}",
+                session.getId(), session.getLiteratureId(), lastEventId);
         return sseEmitter;
     }
 
+    private static void sendAttachError(SseEmitter sseEmitter, String message) throws IOException {
+        sseEmitter.send(SseEmitter.event()
+                .name("error")
+                .data(message));
+        sseEmitter.complete();
+    }
 
     /**
      * 分页查询文献
@@ -174,6 +243,35 @@ public class LiteratureController {
         return Result.success(result);
     }
 
+    /**
+     * 游标分页查询文献
+     */
+    @PostMapping("/page/cursor")
+    @Operation(summary = "游标分页查询文献",
+            description = "按创建时间排序，传入上一页返回的 nextCursor 获取下一页，翻页耗时不随页数增长；searchCount=false 时不统计总数")
+    public Result<PageResult<LiteratureVO>> pageLiteraturesByCursor(
+            @Valid @RequestBody LiteratureQueryRequest request) {
+
+        log.info("游标分页查询文献，条件: {}", request);
+
+        PageResult<LiteratureVO> result = literatureService.pageLiteraturesByCursor(request);
+        return Result.success(result);
+    }
+
+    /**
+     * 标签统计
+     */
+    @GetMapping("/tags/facets")
+    @Operation(summary = "标签统计", description = "返回各标签的文献数量，按数量降序排列")
+    public Result<List<TagFacetVO>> getTagFacets(
+            @Parameter(description = "返回的标签数上限")
+            @RequestParam(defaultValue = "200") @Min(value = 1, message = "标签数上限必须大于0")
+            @Max(value = 1000, message = "标签数上限不能超过1000") Integer limit) {
+
+        List<TagFacetVO> result = literatureTagService.getTagFacets(limit);
+        return Result.success(result);
+    }
+
     /**
      * 获取文献详情
      */
@@ -197,10 +295,11 @@ public class LiteratureController {
     public void downloadLiteratureFile(
             @Parameter(description = "文献ID", required = true)
             @PathVariable @NotNull(message = "文献ID不能为空") Long id,
+            jakarta.servlet.http.HttpServletRequest request,
             jakarta.servlet.http.HttpServletResponse response) {
 
         log.info("下载文献文件，ID: {}", id);
-        literatureService.downloadLiteratureFile(id, response);
+        literatureService.downloadLiteratureFile(id, request, response);
     }
 
     /**
@@ -211,10 +310,11 @@ public class LiteratureController {
     public void previewLiteratureFile(
             @Parameter(description = "文献ID", required = true)
             @PathVariable @NotNull(message = "文献ID不能为空") Long id,
+            jakarta.servlet.http.HttpServletRequest request,
             jakarta.servlet.http.HttpServletResponse response) {
 
         log.info("预览文献文件，ID: {}", id);
-        literatureService.previewLiteratureFile(id, response);
+        literatureService.previewLiteratureFile(id, request, response);
     }
 
     /**
@@ -0,0 +1,78 @@
+package com.yuyuan.literature.controller;
+
+import com.yuyuan.literature.common.result.Result;
+import com.yuyuan.literature.dto.AiSchedulerStats;
+import com.yuyuan.literature.dto.HttpClientStats;
+import com.yuyuan.literature.service.ai.AdaptiveRateLimiter;
+import com.yuyuan.literature.service.ai.AiHttpClientMetrics;
+import com.yuyuan.literature.service.ai.AiRequestScheduler;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 运行监控控制器
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/monitor")
+@Tag(name = "运行监控", description = "查看 AI 请求调度、限流和 HTTP 连接等运行状态")
+@RequiredArgsConstructor
+public class MonitorController {
+
+    private final AiRequestScheduler aiRequestScheduler;
+    private final AdaptiveRateLimiter adaptiveRateLimiter;
+    private final OkHttpClient aiHttpClient;
+    private final AiHttpClientMetrics aiHttpClientMetrics;
+
+    /**
+     * AI 请求调度状态
+     */
+    @GetMapping("/ai-scheduler")
+    @Operation(summary = "AI 请求调度状态", description = "查看各 API Key 的并发数、排队长度和平均等待时间")
+    public Result<AiSchedulerStats> aiSchedulerStats() {
+        return Result.success(aiRequestScheduler.getStats());
+    }
+
+    /**
+     * AI 请求限流状态
+     */
+    @GetMapping("/ai-rate-limit")
+    @Operation(summary = "AI 请求限流状态", description = "查看各 API Key 当前自适应调整后的发送速率（次/秒）")
+    public Result<Map<String, Double>> aiRateLimit() {
+        return Result.success(adaptiveRateLimiter.getRates());
+    }
+
+    /**
+     * AI HTTP 客户端状态
+     */
+    @GetMapping("/http-client")
+    @Operation(summary = "AI HTTP 客户端状态", description = "查看分发器排队/执行中的调用数和连接池复用情况")
+    public Result<HttpClientStats> httpClientStats() {
+        HttpClientStats stats = new HttpClientStats();
+        stats.setMaxRequests(aiHttpClient.dispatcher().getMaxRequests());
+        stats.setMaxRequestsPerHost(aiHttpClient.dispatcher().getMaxRequestsPerHost());
+        stats.setRunningCalls(aiHttpClient.dispatcher().runningCallsCount());
+        stats.setQueuedCalls(aiHttpClient.dispatcher().queuedCallsCount());
+        stats.setConnectionCount(aiHttpClient.connectionPool().connectionCount());
+        stats.setIdleConnectionCount(aiHttpClient.connectionPool().idleConnectionCount());
+        stats.setCallsStarted(aiHttpClientMetrics.getCallsStarted());
+        stats.setCallsFailed(aiHttpClientMetrics.getCallsFailed());
+        stats.setConnectionsOpened(aiHttpClientMetrics.getConnectionsOpened());
+        stats.setHttp2Connections(aiHttpClientMetrics.getHttp2Connections());
+        long acquired = aiHttpClientMetrics.getConnectionsAcquired();
+        stats.setConnectionReuseRatio(acquired == 0 ? 0.0
+                : Math.max(0, acquired - aiHttpClientMetrics.getConnectionsOpened()) / (double) acquired);
+        return Result.success(stats);
+    }
+}
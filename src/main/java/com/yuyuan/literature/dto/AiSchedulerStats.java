@@ -0,0 +1,65 @@
+package com.yuyuan.literature.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AI 请求调度统计
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Data
+@Schema(description = "AI 请求调度统计")
+public class AiSchedulerStats {
+
+    @Schema(description = "每个 API Key 的最大并发数")
+    private Integer maxConcurrentPerKey;
+
+    @Schema(description = "每个 API Key 的最大排队数")
+    private Integer maxQueueSize;
+
+    @Schema(description = "执行中的请求总数")
+    private Integer totalRunning;
+
+    @Schema(description = "排队中的请求总数")
+    private Integer totalQueued;
+
+    @Schema(description = "各 API Key 统计")
+    private List<KeyStats> keys;
+
+    /**
+     * 单个 API Key 统计
+     */
+    @Data
+    @Schema(description = "API Key 调度统计")
+    public static class KeyStats {
+
+        @Schema(description = "API Key（已遮蔽）")
+        private String apiKey;
+
+        @Schema(description = "许可数")
+        private Integer permits;
+
+        @Schema(description = "执行中的请求数")
+        private Integer running;
+
+        @Schema(description = "排队中的请求数")
+        private Integer queued;
+
+        @Schema(description = "各优先级排队数")
+        private Map<String, Integer> queuedByPriority;
+
+        @Schema(description = "已完成请求数")
+        private Long completed;
+
+        @Schema(description = "因队列已满被拒绝的请求数")
+        private Long rejected;
+
+        @Schema(description = "平均排队时间（毫秒）")
+        private Long avgWaitMillis;
+    }
+}
@@ -0,0 +1,48 @@
+package com.yuyuan.literature.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * AI HTTP 客户端统计
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Data
+@Schema(description = "AI HTTP 客户端统计")
+public class HttpClientStats {
+
+    @Schema(description = "分发器最大并发请求数")
+    private Integer maxRequests;
+
+    @Schema(description = "分发器单主机最大并发请求数")
+    private Integer maxRequestsPerHost;
+
+    @Schema(description = "执行中的调用数")
+    private Integer runningCalls;
+
+    @Schema(description = "在分发器中排队的异步调用数")
+    private Integer queuedCalls;
+
+    @Schema(description = "连接池中的连接数")
+    private Integer connectionCount;
+
+    @Schema(description = "连接池中的空闲连接数")
+    private Integer idleConnectionCount;
+
+    @Schema(description = "累计发起的调用数")
+    private Long callsStarted;
+
+    @Schema(description = "累计失败的调用数")
+    private Long callsFailed;
+
+    @Schema(description = "累计新建的连接数")
+    private Long connectionsOpened;
+
+    @Schema(description = "累计新建的 HTTP/2 连接数")
+    private Long http2Connections;
+
+    @Schema(description = "连接复用率（复用的连接获取次数 / 总连接获取次数）")
+    private Double connectionReuseRatio;
+}
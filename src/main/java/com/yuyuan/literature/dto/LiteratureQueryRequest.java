@@ -2,6 +2,7 @@ package com.yuyuan.literature.dto;
 
 import com.yuyuan.literature.common.request.PageRequest;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -18,10 +19,12 @@ import java.util.List;
 @Schema(description = "文献查询请求")
 public class LiteratureQueryRequest extends PageRequest {
 
+    private static final String DATE_PATTERN = "^(\\d{4}-\\d{2}-\\d{2})?$";
+
     /**
-     * 关键词搜索（搜索文件名、描述、阅读指南）
+     * 关键词搜索（全文检索文件名、描述、阅读指南；未指定排序字段或排序字段为 relevance 时按相关度排序）
      */
-    @Schema(description = "关键词搜索", example = "人工智能")
+    @Schema(description = "关键词搜索，未指定排序字段或 sortField=relevance 时按相关度排序", example = "人工智能")
     private String keyword;
 
     /**
@@ -46,11 +49,25 @@ public class LiteratureQueryRequest extends PageRequest {
      * 开始时间（创建时间范围查询）
      */
     @Schema(description = "开始时间", example = "2024-01-01")
+    @Pattern(regexp = DATE_PATTERN, message = "开始时间格式应为 yyyy-MM-dd")
     private String startDate;
 
     /**
      * 结束时间（创建时间范围查询）
      */
     @Schema(description = "结束时间", example = "2024-12-31")
+    @Pattern(regexp = DATE_PATTERN, message = "结束时间格式应为 yyyy-MM-dd")
     private String endDate;
+
+    /**
+     * 游标（仅游标分页使用，取上一页返回的 nextCursor，为空时查询第一页）
+     */
+    @Schema(description = "游标，取上一页返回的 nextCursor，为空时查询第一页")
+    private String cursor;
+
+    /**
+     * 是否统计总数（仅游标分页使用，不需要总数时可关闭以省去 COUNT 查询）
+     */
+    @Schema(description = "是否统计总数（游标分页）", example = "false")
+    private Boolean searchCount = true;
 }
@@ -0,0 +1,27 @@
+package com.yuyuan.literature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 已保存文件信息
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFile {
+
+    /**
+     * 文件存储路径
+     */
+    private String filePath;
+
+    /**
+     * 文件内容 SHA-256 哈希（十六进制）
+     */
+    private String contentHash;
+}
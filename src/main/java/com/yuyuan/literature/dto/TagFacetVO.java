@@ -0,0 +1,27 @@
+package com.yuyuan.literature.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 标签统计 VO
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Data
+@Schema(description = "标签统计")
+public class TagFacetVO {
+
+    /**
+     * 标签
+     */
+    @Schema(description = "标签", example = "人工智能")
+    private String tag;
+
+    /**
+     * 文献数量
+     */
+    @Schema(description = "文献数量", example = "12")
+    private Long count;
+}
@@ -65,6 +65,13 @@ public class Literature {
     @Schema(description = "文档内容字符数")
     private Integer contentLength;
 
+    /**
+     * 文件内容 SHA-256 哈希，用于重复文献去重
+     */
+    @TableField("content_hash")
+    @Schema(description = "文件内容哈希")
+    private String contentHash;
+
     /**
      * 分类标签（JSON数组）
      */
@@ -80,12 +87,19 @@ public class Literature {
     private String description;
 
     /**
-     * 阅读指南内容
+     * 阅读指南内容（存放在 literature_content 表，只在详情查询中加载）
      */
-    @TableField("reading_guide")
+    @TableField(exist = false)
     @Schema(description = "阅读指南内容")
     private String readingGuide;
 
+    /**
+     * 阅读指南摘要（前 200 个字符，列表查询只读取该字段）
+     */
+    @TableField("reading_guide_summary")
+    @Schema(description = "阅读指南摘要")
+    private String readingGuideSummary;
+
     /**
      * 状态：0-处理中，1-已完成，2-处理失败
      */
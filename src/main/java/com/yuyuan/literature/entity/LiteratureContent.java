@@ -0,0 +1,40 @@
+package com.yuyuan.literature.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文献内容实体
+ * <p>
+ * 阅读指南等大字段单独存放，文献主表的行保持窄小，列表查询和状态更新不会读写大字段。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Data
+@TableName("literature_content")
+public class LiteratureContent {
+
+    /**
+     * 文献ID
+     */
+    @TableId(value = "literature_id", type = IdType.INPUT)
+    private Long literatureId;
+
+    /**
+     * 阅读指南内容
+     */
+    @TableField("reading_guide")
+    private String readingGuide;
+
+    /**
+     * 更新时间
+     */
+    @TableField("update_time")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,32 @@
+package com.yuyuan.literature.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文献标签关联实体（每个标签一行，用于按标签筛选和统计）
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("literature_tag")
+public class LiteratureTag {
+
+    /**
+     * 文献ID
+     */
+    @TableField("literature_id")
+    private Long literatureId;
+
+    /**
+     * 标签
+     */
+    @TableField("tag")
+    private String tag;
+}
@@ -0,0 +1,25 @@
+package com.yuyuan.literature.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yuyuan.literature.entity.LiteratureContent;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 文献内容 Mapper 接口
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Mapper
+public interface LiteratureContentMapper extends BaseMapper<LiteratureContent> {
+
+    /**
+     * 写入或更新阅读指南
+     *
+     * @param literatureId 文献ID
+     * @param readingGuide 阅读指南内容
+     * @return 影响行数
+     */
+    int upsertReadingGuide(@Param("literatureId") Long literatureId, @Param("readingGuide") String readingGuide);
+}
@@ -3,11 +3,14 @@ package com.yuyuan.literature.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.yuyuan.literature.common.request.PageCursor;
 import com.yuyuan.literature.dto.LiteratureQueryRequest;
 import com.yuyuan.literature.entity.Literature;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * 文献 Mapper 接口
  *
@@ -20,9 +23,81 @@ public interface LiteratureMapper extends BaseMapper<Literature> {
     /**
      * 分页查询文献
      *
-     * @param page    分页参数
-     * @param request 查询条件
+     * @param page       分页参数
+     * @param request    查询条件
+     * @param matchedIds 全文索引命中的文献ID，无关键词时为 null（按相关度排序时不使用该查询）
      * @return 分页结果
      */
-    IPage<Literature> selectLiteraturePage(Page<Literature> page, @Param("req") LiteratureQueryRequest request);
+    IPage<Literature> selectLiteraturePage(Page<Literature> page, @Param("req") LiteratureQueryRequest request,
+                                           @Param("matchedIds") List<Long> matchedIds);
+
+    /**
+     * 游标分页查询文献
+     *
+     * @param request    查询条件
+     * @param matchedIds 全文索引命中的文献ID，无关键词时为 null
+     * @param cursor     上一页最后一条记录的位置，为 null 时查询第一页
+     * @param asc        是否按创建时间升序
+     * @param limit      查询条数
+     * @return 文献列表
+     */
+    List<Literature> selectLiteratureByCursor(@Param("req") LiteratureQueryRequest request,
+                                              @Param("matchedIds") List<Long> matchedIds,
+                                              @Param("cursor") PageCursor cursor,
+                                              @Param("asc") boolean asc,
+                                              @Param("limit") int limit);
+
+    /**
+     * 查询全文索引命中的文献中满足过滤条件的文献ID
+     *
+     * @param request    查询条件
+     * @param matchedIds 全文索引命中的文献ID
+     * @return 文献ID（无序）
+     */
+    List<Long> selectMatchedIds(@Param("req") LiteratureQueryRequest request,
+                                @Param("matchedIds") List<Long> matchedIds);
+
+    /**
+     * 按 ID 查询文献列表字段
+     *
+     * @param ids 文献ID，不能为空
+     * @return 未删除的文献（无序）
+     */
+    List<Literature> selectLiteratureByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * 统计满足条件的文献数量
+     *
+     * @param request    查询条件
+     * @param matchedIds 全文索引命中的文献ID，无关键词时为 null
+     * @return 文献数量
+     */
+    Long countLiterature(@Param("req") LiteratureQueryRequest request, @Param("matchedIds") List<Long> matchedIds);
+
+    /**
+     * 查询文献详情（包含完整阅读指南）
+     *
+     * @param id 文献ID
+     * @return 文献，不存在或已删除时返回 null
+     */
+    Literature selectLiteratureDetail(@Param("id") Long id);
+
+    /**
+     * 按文件内容哈希查询一条可复用的文献（优先已生成阅读指南的记录，其次最新的记录）
+     * <p>
+     * 只读取复用所需的列：文件路径、内容长度、标签、描述和阅读指南摘要。
+     *
+     * @param contentHash 文件内容哈希
+     * @return 文献，不存在时返回 null
+     */
+    Literature selectReusableByContentHash(@Param("contentHash") String contentHash);
+
+    /**
+     * 按 ID 分批查询全文索引字段（文件名、描述、阅读指南）
+     *
+     * @param lastId 上一批最后一条记录的 ID
+     * @param limit  查询条数
+     * @return 文献列表
+     */
+    List<Literature> selectForSearchIndex(@Param("lastId") long lastId, @Param("limit") int limit);
 }
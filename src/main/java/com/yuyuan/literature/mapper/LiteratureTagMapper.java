@@ -0,0 +1,35 @@
+package com.yuyuan.literature.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.yuyuan.literature.dto.TagFacetVO;
+import com.yuyuan.literature.entity.LiteratureTag;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 文献标签 Mapper 接口
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Mapper
+public interface LiteratureTagMapper extends BaseMapper<LiteratureTag> {
+
+    /**
+     * 批量插入标签
+     *
+     * @param tags 标签列表
+     * @return 插入行数
+     */
+    int insertBatch(@Param("tags") List<LiteratureTag> tags);
+
+    /**
+     * 统计每个标签的文献数量
+     *
+     * @param limit 返回的标签数上限
+     * @return 按文献数量降序排列的标签统计
+     */
+    List<TagFacetVO> selectTagFacets(@Param("limit") int limit);
+}
@@ -0,0 +1,133 @@
+package com.yuyuan.literature.service;
+
+import com.yuyuan.literature.service.ai.TokenEstimator;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 文献提取文本句柄
+ * <p>
+ * 文本默认保存在压缩存储文件中，使用方按需以流的方式读取，
+ * 避免整篇文档在请求处理过程中以多个字符串副本常驻堆内存。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+public class ExtractedText {
+
+    private final Path textFile;
+    private final String content;
+    private volatile int length = -1;
+    private volatile int estimatedTokens = -1;
+
+    private ExtractedText(Path textFile, String content) {
+        this.textFile = textFile;
+        this.content = content;
+    }
+
+    /**
+     * 基于压缩存储文件创建
+     */
+    public static ExtractedText ofFile(Path textFile) {
+        return new ExtractedText(textFile, null);
+    }
+
+    /**
+     * 基于内存字符串创建（存储不可用时的回退方式）
+     */
+    public static ExtractedText ofString(String content) {
+        ExtractedText text = new ExtractedText(null, content);
+        text.length = content.length();
+        return text;
+    }
+
+    /**
+     * 打开文本读取流，调用方负责关闭
+     */
+    public Reader openReader() throws IOException {
+        if (content != null) {
+            return new StringReader(content);
+        }
+        return new InputStreamReader(new GZIPInputStream(Files.newInputStream(textFile)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 文本字符数（首次调用时流式统计）
+     */
+    public int length() {
+        if (length < 0) {
+            scan();
+        }
+        return length;
+    }
+
+    /**
+     * 估算的 token 数（首次调用时与字符数一并流式统计）
+     */
+    public int estimatedTokens() {
+        if (estimatedTokens < 0) {
+            scan();
+        }
+        return estimatedTokens;
+    }
+
+    /**
+     * 截取不超过指定 token 数的前缀
+     *
+     * @param maxTokens token 上限
+     * @return 未超出上限时返回自身，否则返回截取后的内存文本
+     */
+    public ExtractedText truncate(int maxTokens) {
+        if (estimatedTokens() <= maxTokens) {
+            return this;
+        }
+        try (Reader reader = openReader()) {
+            return ofString(TokenEstimator.truncate(reader, maxTokens));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 单次读取同时统计字符数和 token 数
+     */
+    private void scan() {
+        TokenEstimator estimator = new TokenEstimator();
+        char[] buffer = new char[8192];
+        int count = 0;
+        try (Reader reader = openReader()) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                count += read;
+                estimator.accept(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        estimatedTokens = estimator.estimate();
+        length = count;
+    }
+
+    /**
+     * 读取完整文本（仅用于确实需要完整字符串的场景）
+     */
+    public String readFully() {
+        if (content != null) {
+            return content;
+        }
+        try (Reader reader = openReader()) {
+            return IOUtils.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
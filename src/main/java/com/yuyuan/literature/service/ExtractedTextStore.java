@@ -0,0 +1,122 @@
+package com.yuyuan.literature.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 文献提取文本存储
+ * <p>
+ * 文档文本在导入时解析一次，解析输出直接写入 gzip 压缩的旁路文件，之后按需以流的方式读取，
+ * 重新生成阅读指南、重新分类、建立检索索引等操作无需再次解析原始文件。
+ * 旁路文件以存储文件名为键，去重后共享同一文件的文献也共享同一份文本。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExtractedTextStore {
+
+    private static final String TEXT_SUFFIX = ".txt.gz";
+
+    private final FileProcessingService fileProcessingService;
+
+    @Value("${literature.file.text-path:./uploads/texts}")
+    private String textPath;
+
+    /**
+     * 获取文件的提取文本，不存在时解析原始文件并直接写入压缩存储
+     *
+     * @param filePath 文件存储路径
+     * @return 提取文本句柄
+     */
+    public ExtractedText getOrExtract(String filePath) {
+        Path textFile = resolveTextFile(filePath);
+        if (Files.exists(textFile)) {
+            log.debug("命中提取文本存储: {}", filePath);
+            return ExtractedText.ofFile(textFile);
+        }
+
+        Path tempFile = null;
+        try {
+            Files.createDirectories(textFile.getParent());
+            tempFile = Files.createTempFile(textFile.getParent(), textFile.getFileName().toString(), ".tmp");
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(tempFile));
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+                fileProcessingService.extractFileContent(filePath, writer);
+            }
+            Files.move(tempFile, textFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("提取文本保存成功: {}", textFile);
+            return ExtractedText.ofFile(textFile);
+        } catch (IOException e) {
+            // 存储不可用时回退为内存文本，不影响当前请求
+            log.error("提取文本保存失败，回退为内存文本: {}", textFile, e);
+            deleteQuietly(tempFile);
+            return ExtractedText.ofString(fileProcessingService.extractFileContent(filePath));
+        } catch (RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * 获取已存储的提取文本，不触发解析
+     *
+     * @param filePath 文件存储路径
+     * @return 提取文本句柄，未存储时返回 null
+     */
+    public ExtractedText find(String filePath) {
+        Path textFile = resolveTextFile(filePath);
+        return Files.exists(textFile) ? ExtractedText.ofFile(textFile) : null;
+    }
+
+    /**
+     * 删除提取文本
+     *
+     * @param filePath 文件存储路径
+     */
+    public void delete(String filePath) {
+        Path textFile = resolveTextFile(filePath);
+        try {
+            if (Files.deleteIfExists(textFile)) {
+                log.info("提取文本删除成功: {}", textFile);
+            }
+        } catch (IOException e) {
+            log.warn("提取文本删除失败: {}", textFile, e);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("临时文件删除失败: {}", path, e);
+        }
+    }
+
+    /**
+     * 根据文件存储路径计算提取文本的存储位置
+     */
+    private Path resolveTextFile(String filePath) {
+        return Paths.get(textPath).resolve(FilenameUtils.getBaseName(filePath) + TEXT_SUFFIX);
+    }
+}
@@ -0,0 +1,82 @@
+package com.yuyuan.literature.service;
+
+import cn.hutool.core.util.HexUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 文件 ETag 解析器
+ * <p>
+ * ETag 取文件当前内容的 SHA-256（强校验），按路径缓存并以文件大小和修改时间判断是否失效。
+ * 存储文件会被本地 PDF 阅读器直接修改（标注、高亮），因此不能使用上传时记录的哈希。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class FileETagResolver {
+
+    private final Map<String, CachedETag> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 获取文件的强 ETag
+     *
+     * @param file 文件
+     * @return 带引号的 ETag
+     */
+    public String resolve(File file) throws IOException {
+        String key = file.getCanonicalPath();
+        long size = file.length();
+        long lastModified = file.lastModified();
+
+        CachedETag cached = cache.get(key);
+        if (cached != null && cached.size() == size && cached.lastModified() == lastModified) {
+            return cached.etag();
+        }
+
+        String etag = "\"" + hash(file) + "\"";
+        cache.put(key, new CachedETag(size, lastModified, etag));
+        log.debug("计算文件 ETag: {}, {}", file.getName(), etag);
+        return etag;
+    }
+
+    /**
+     * 移除文件的缓存 ETag（文件删除时调用）
+     *
+     * @param file 文件
+     */
+    public void evict(File file) {
+        try {
+            cache.remove(file.getCanonicalPath());
+        } catch (IOException e) {
+            cache.remove(file.getAbsolutePath());
+        }
+    }
+
+    private static String hash(File file) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexUtil.encodeHexStr(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedETag(long size, long lastModified, String etag) {
+    }
+}
@@ -1,9 +1,13 @@
 package com.yuyuan.literature.service;
 
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
 import cn.hutool.core.util.StrUtil;
 import com.yuyuan.literature.common.exception.BusinessException;
 import com.yuyuan.literature.common.result.ResultCode;
+import com.yuyuan.literature.dto.StoredFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
@@ -22,13 +26,25 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * 文件处理服务
@@ -50,12 +66,52 @@ public class FileProcessingService {
     private String maxFileSize;
 
     /**
-     * 保存上传的文件并返回文件路径
+     * PDF 页数达到该阈值时按页码区间并行解析，低于阈值保持单线程
+     */
+    @Value("${literature.file.pdf-parallel.page-threshold:60}")
+    private int pdfParallelPageThreshold;
+
+    /**
+     * 每个并行任务解析的最大页数
+     */
+    @Value("${literature.file.pdf-parallel.pages-per-task:20}")
+    private int pdfPagesPerTask;
+
+    /**
+     * 并行解析线程数，0 表示使用 CPU 核数
+     */
+    @Value("${literature.file.pdf-parallel.threads:0}")
+    private int pdfParallelThreads;
+
+    // PDF 并行解析线程池（有界，所有请求共享）
+    private ForkJoinPool pdfExtractionPool;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = pdfParallelThreads > 0 ? pdfParallelThreads : Runtime.getRuntime().availableProcessors();
+        pdfExtractionPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("pdf-extract-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        log.info("PDF 并行解析线程池初始化完成，并行度: {}, 页数阈值: {}, 每任务页数: {}",
+                parallelism, pdfParallelPageThreshold, pdfPagesPerTask);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (pdfExtractionPool != null) {
+            pdfExtractionPool.shutdownNow();
+        }
+    }
+
+    /**
+     * 保存上传的文件，写入的同时计算内容 SHA-256 哈希
      *
      * @param file 上传的文件
-     * @return 保存后的文件路径
+     * @return 保存后的文件路径及内容哈希
      */
-    public String saveFile(MultipartFile file) {
+    public StoredFile saveFile(MultipartFile file) {
         try {
             // 验证文件
             validateFile(file);
@@ -71,14 +127,18 @@ public class FileProcessingService {
             String extension = FilenameUtils.getExtension(originalFilename);
             String uniqueFilename = UUID.randomUUID().toString() + "." + extension;
             
-            // 保存文件
+            // 保存文件，边写入边计算哈希，避免二次读取
             Path filePath = uploadDir.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(inputStream, filePath);
+            }
+            String contentHash = HexUtil.encodeHexStr(digest.digest());
             
-            log.info("文件保存成功: {}", filePath.toString());
-            return filePath.toString();
+            log.info("文件保存成功: {}, SHA-256: {}", filePath.toString(), contentHash);
+            return new StoredFile(filePath.toString(), contentHash);
             
-        } catch (IOException e) {
+        } catch (IOException | NoSuchAlgorithmException e) {
             log.error("文件保存失败", e);
             throw new BusinessException(ResultCode.FILE_UPLOAD_ERROR);
         }
@@ -91,6 +151,18 @@ public class FileProcessingService {
      * @return 文件内容
      */
     public String extractFileContent(String filePath) {
+        StringWriter writer = new StringWriter();
+        extractFileContent(filePath, writer);
+        return writer.toString();
+    }
+
+    /**
+     * 解析文件内容并写入指定输出（PDF 单线程解析时逐页写出，不在内存中拼接完整文本）
+     *
+     * @param filePath 文件路径
+     * @param writer   文本输出
+     */
+    public void extractFileContent(String filePath, Writer writer) {
         try {
             File file = new File(filePath);
             if (!file.exists()) {
@@ -99,13 +171,13 @@ public class FileProcessingService {
 
             String extension = FilenameUtils.getExtension(filePath).toLowerCase();
             
-            return switch (extension) {
-                case "pdf" -> extractPdfContent(file);
-                case "doc" -> extractDocContent(file);
-                case "docx" -> extractDocxContent(file);
-                case "md", "markdown" -> extractMarkdownContent(file);
+            switch (extension) {
+                case "pdf" -> writePdfContent(file, writer);
+                case "doc" -> writer.write(extractDocContent(file));
+                case "docx" -> writer.write(extractDocxContent(file));
+                case "md", "markdown" -> writer.write(extractMarkdownContent(file));
                 default -> throw new BusinessException(ResultCode.FILE_TYPE_NOT_SUPPORTED);
-            };
+            }
             
         } catch (Exception e) {
             log.error("文件内容解析失败: {}", filePath, e);
@@ -146,12 +218,86 @@ public class FileProcessingService {
     }
 
     /**
-     * 解析 PDF 文件内容
+     * 解析 PDF 文件内容并写入指定输出
      */
-    private String extractPdfContent(File file) throws IOException {
+    private void writePdfContent(File file, Writer writer) throws IOException {
+        int pageCount;
         try (PDDocument document = PDDocument.load(file)) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+            pageCount = document.getNumberOfPages();
+            if (pageCount < pdfParallelPageThreshold) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.writeText(document, writer);
+                return;
+            }
+        }
+
+        writer.write(extractPdfContentInParallel(file, pageCount));
+    }
+
+    /**
+     * 按页码区间并行解析 PDF 内容，结果按页序拼接
+     */
+    private String extractPdfContentInParallel(File file, int pageCount) throws IOException {
+        long startTime = System.currentTimeMillis();
+        try {
+            String content = pdfExtractionPool.submit(
+                    new PdfPageRangeTask(file, 1, pageCount, Math.max(1, pdfPagesPerTask))).get();
+            log.info("PDF 并行解析完成: {}, 页数: {}, 耗时: {} ms",
+                    file.getName(), pageCount, System.currentTimeMillis() - startTime);
+            return content;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("PDF 并行解析被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            throw new IOException("PDF 并行解析失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * PDF 页码区间解析任务
+     * <p>
+     * PDDocument 不是线程安全的，每个叶子任务独立加载文档并使用独立的 PDFTextStripper。
+     */
+    private static class PdfPageRangeTask extends RecursiveTask<String> {
+
+        private final File file;
+        private final int startPage;
+        private final int endPage;
+        private final int pagesPerTask;
+
+        PdfPageRangeTask(File file, int startPage, int endPage, int pagesPerTask) {
+            this.file = file;
+            this.startPage = startPage;
+            this.endPage = endPage;
+            this.pagesPerTask = pagesPerTask;
+        }
+
+        @Override
+        protected String compute() {
+            if (endPage - startPage + 1 <= pagesPerTask) {
+                return extractRange();
+            }
+
+            int middlePage = (startPage + endPage) >>> 1;
+            PdfPageRangeTask left = new PdfPageRangeTask(file, startPage, middlePage, pagesPerTask);
+            PdfPageRangeTask right = new PdfPageRangeTask(file, middlePage + 1, endPage, pagesPerTask);
+            ForkJoinTask.invokeAll(left, right);
+            return left.join() + right.join();
+        }
+
+        private String extractRange() {
+            try (PDDocument document = PDDocument.load(file)) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.setStartPage(startPage);
+                stripper.setEndPage(endPage);
+                return stripper.getText(document);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
     }
 
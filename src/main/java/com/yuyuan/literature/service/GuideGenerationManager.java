@@ -0,0 +1,177 @@
+package com.yuyuan.literature.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.yuyuan.literature.common.sse.ResumableSseStream;
+import com.yuyuan.literature.common.sse.SseContentProtocol;
+import com.yuyuan.literature.entity.Literature;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 阅读指南生成会话管理
+ * <p>
+ * 创建并持有 {@link GuideGenerationSession}，上游生成与客户端连接解耦：生成结束后保存阅读指南并启动分类，
+ * 与是否有客户端在线无关。客户端可凭会话ID（响应头 {@link #HEADER}）续传，也可按文献ID连接进行中的生成。
+ * 会话结束后继续保留一段时间，客户端在结束前后断开也能补收剩余事件。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GuideGenerationManager {
+
+    /**
+     * 返回会话ID的响应头
+     */
+    public static final String HEADER = "X-Stream-Id";
+
+    private final LiteratureAiService literatureAiService;
+    private final LiteratureService literatureService;
+
+    /**
+     * 每个会话缓冲的最大事件数
+     */
+    @Value("${literature.sse.resume.buffer-events:2048}")
+    private int bufferEvents;
+
+    /**
+     * 会话结束后保留的时间（毫秒）
+     */
+    @Value("${literature.sse.resume.retention:60000}")
+    private long retention;
+
+    /**
+     * 单次生成的最长时间（毫秒，含排队），超时后取消生成并标记文献处理失败
+     */
+    @Value("${literature.sse.resume.max-lifetime:3600000}")
+    private long maxLifetime;
+
+    private final Map<String, GuideGenerationSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, GuideGenerationSession> sessionsByLiterature = new ConcurrentHashMap<>();
+
+    /**
+     * 创建并登记新的会话
+     *
+     * @param protocol 内容事件协议
+     * @return 会话
+     */
+    public GuideGenerationSession create(SseContentProtocol protocol) {
+        GuideGenerationSession session = new GuideGenerationSession(
+                new ResumableSseStream(UUID.randomUUID().toString(), protocol, bufferEvents));
+        sessions.put(session.getId(), session);
+        session.getStream().getCompletion().whenComplete((result, throwable) ->
+                CompletableFuture.runAsync(() -> remove(session),
+                        CompletableFuture.delayedExecutor(retention, TimeUnit.MILLISECONDS)));
+        log.debug("创建阅读指南生成会话，会话ID: {}, 进行中: {}", session.getId(), sessions.size());
+        return session;
+    }
+
+    /**
+     * 为文献启动阅读指南生成，结束后保存阅读指南并启动分类，失败时标记文献处理失败
+     *
+     * @param session      会话
+     * @param literatureId 文献ID
+     * @param apiKey       API Key
+     * @param document     文献提取文本
+     */
+    public void start(GuideGenerationSession session, Long literatureId, String apiKey, ExtractedText document) {
+        session.setLiteratureId(literatureId);
+        sessionsByLiterature.put(literatureId, session);
+        session.getStream().getCompletion().whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                log.error("文献阅读指南生成失败，文献ID: {}", literatureId, throwable);
+                literatureService.updateStatus(literatureId, Literature.Status.FAILED.getCode());
+                return;
+            }
+            try {
+                persist(session, literatureId, apiKey);
+            } catch (Exception e) {
+                log.error("保存阅读指南失败，文献ID: {}", literatureId, e);
+                literatureService.updateStatus(literatureId, Literature.Status.FAILED.getCode());
+            }
+        });
+
+        // 上游异常挂起时兜底：超过最长时间仍未结束则取消会话，失败回调随之标记文献处理失败
+        session.getStream().getCompletion().copy()
+                .orTimeout(maxLifetime, TimeUnit.MILLISECONDS)
+                .whenComplete((result, throwable) -> {
+                    if (throwable instanceof TimeoutException) {
+                        session.cancel("阅读指南生成超时，已取消");
+                    }
+                });
+
+        literatureAiService.generateReadingGuideStream(apiKey, document, session);
+    }
+
+    /**
+     * 按会话ID查找
+     *
+     * @param sessionId 会话ID
+     * @return 会话，不存在或已过期时返回 null
+     */
+    public GuideGenerationSession get(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * 按文献ID查找
+     *
+     * @param literatureId 文献ID
+     * @return 会话，该文献没有进行中或刚结束的生成时返回 null
+     */
+    public GuideGenerationSession getByLiteratureId(Long literatureId) {
+        return sessionsByLiterature.get(literatureId);
+    }
+
+    /**
+     * 服务关闭时取消进行中的生成，对应文献标记为处理失败
+     */
+    @PreDestroy
+    public void shutdown() {
+        List<GuideGenerationSession> running = sessions.values().stream()
+                .filter(session -> !session.getStream().getCompletion().isDone())
+                .toList();
+        if (!running.isEmpty()) {
+            log.info("服务关闭，取消进行中的阅读指南生成，数量: {}", running.size());
+        }
+        running.forEach(session -> session.cancel("服务关闭，生成已取消"));
+    }
+
+    private void persist(GuideGenerationSession session, Long literatureId, String apiKey) {
+        log.info("阅读指南生成完成，开始后台分类处理，文献ID: {}", literatureId);
+
+        // 保存阅读指南到数据库
+        String readingGuide = session.getContent();
+        if (StrUtil.isNotBlank(readingGuide)) {
+            literatureService.updateReadingGuide(literatureId, readingGuide);
+
+            // 使用虚拟线程进行后台分类
+            literatureAiService.generateClassificationWithVirtualThread(
+                    apiKey, readingGuide, literatureId, literatureService);
+        } else {
+            log.warn("阅读指南内容为空，跳过分类处理");
+            literatureService.updateStatus(literatureId, Literature.Status.COMPLETED.getCode());
+        }
+    }
+
+    private void remove(GuideGenerationSession session) {
+        sessions.remove(session.getId(), session);
+        Long literatureId = session.getLiteratureId();
+        if (literatureId != null) {
+            sessionsByLiterature.remove(literatureId, session);
+        }
+    }
+}
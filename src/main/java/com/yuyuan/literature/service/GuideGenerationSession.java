@@ -0,0 +1,109 @@
+package com.yuyuan.literature.service;
+
+import com.yuyuan.literature.common.sse.ResumableSseStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 阅读指南生成会话
+ * <p>
+ * 一次生成对应一个会话，由 {@link GuideGenerationManager} 创建和持有，生命周期与客户端连接无关：
+ * 会话持有上游请求的取消回调，线程安全地累积生成内容，事件经 {@link ResumableSseStream} 分发给零个或多个客户端。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+public class GuideGenerationSession {
+
+    private final ResumableSseStream stream;
+
+    private final StringBuilder content = new StringBuilder();
+    private final List<Runnable> cancelCallbacks = new ArrayList<>();
+
+    private volatile Long literatureId;
+    private boolean cancelled;
+
+    public GuideGenerationSession(ResumableSseStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * 会话ID（与流ID相同）
+     */
+    public String getId() {
+        return stream.getId();
+    }
+
+    public ResumableSseStream getStream() {
+        return stream;
+    }
+
+    public Long getLiteratureId() {
+        return literatureId;
+    }
+
+    void setLiteratureId(Long literatureId) {
+        this.literatureId = literatureId;
+    }
+
+    /**
+     * 累积内容增量（上游回调线程写入）
+     *
+     * @param delta 内容增量
+     */
+    public synchronized void appendContent(String delta) {
+        content.append(delta);
+    }
+
+    /**
+     * 已累积的全部内容
+     */
+    public synchronized String getContent() {
+        return content.toString();
+    }
+
+    /**
+     * 注册上游取消回调，用于取消排队或关闭上游请求
+     *
+     * @param callback 回调，会话已取消时立即执行
+     */
+    public void onCancel(Runnable callback) {
+        synchronized (this) {
+            if (!cancelled) {
+                cancelCallbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    /**
+     * 取消生成：关闭上游请求并以异常结束事件流
+     *
+     * @param reason 原因
+     */
+    public void cancel(String reason) {
+        List<Runnable> callbacks;
+        synchronized (this) {
+            if (cancelled || stream.getCompletion().isDone()) {
+                return;
+            }
+            cancelled = true;
+            callbacks = List.copyOf(cancelCallbacks);
+            cancelCallbacks.clear();
+        }
+        log.warn("取消阅读指南生成，会话ID: {}, 原因: {}", getId(), reason);
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (Exception e) {
+                log.warn("执行上游取消回调失败，会话ID: {}", getId(), e);
+            }
+        }
+        stream.send("error", reason);
+        stream.completeWithError(new IllegalStateException(reason));
+    }
+}
@@ -3,9 +3,21 @@ package com.yuyuan.literature.service;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
+import com.yuyuan.literature.common.exception.AiServiceException;
 import com.yuyuan.literature.common.exception.BusinessException;
 import com.yuyuan.literature.common.result.ResultCode;
+import com.yuyuan.literature.common.sse.CoalescingSseWriter;
+import com.yuyuan.literature.common.sse.ResumableSseStream;
 import com.yuyuan.literature.dto.KimiChatRequest;
+import com.yuyuan.literature.service.ai.AdaptiveRateLimiter;
+import com.yuyuan.literature.service.ai.AiRequestScheduler;
+import com.yuyuan.literature.service.ai.ChatStreamChunkParser;
+import com.yuyuan.literature.service.ai.InFlightCalls;
+import com.yuyuan.literature.service.ai.KimiChatRequestBody;
+import com.yuyuan.literature.service.ai.ModelRouter;
+import com.yuyuan.literature.service.ai.ReadingGuideCache;
+import com.yuyuan.literature.service.ai.TextChunker;
+import com.yuyuan.literature.service.ai.TokenEstimator;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import okhttp3.sse.EventSource;
@@ -15,16 +27,28 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * 文献 AI 服务
@@ -36,12 +60,25 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class LiteratureAiService {
 
+    /**
+     * 流式生成的准备工作（缓存查询、分段要点提取、排队）在虚拟线程中执行，阻塞等待不占用公共 ForkJoinPool
+     */
+    private static final Executor GUIDE_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 直接生成阅读指南时的用户消息
+     */
+    private static final String GUIDE_USER_MESSAGE = "请为以下文献生成阅读指南：\n\n";
+
+    /**
+     * 长文献分段汇总（reduce 阶段）时的用户消息
+     */
+    private static final String REDUCE_USER_MESSAGE =
+            "以下是一篇长文献按原文顺序分段提取的要点，请据此为该文献生成阅读指南：\n\n";
+
     @Value("${literature.ai.base-url:https://api.moonshot.cn/v1}")
     private String baseUrl;
 
-    @Value("${literature.ai.model:moonshot-v1-8k}")
-    private String model;
-
     @Value("${literature.ai.max-tokens:4000}")
     private Integer maxTokens;
 
@@ -57,27 +94,69 @@ public class LiteratureAiService {
     @Value("${literature.ai.classification-prompt-file}")
     private String classificationPromptFile;
 
+    @Value("${literature.ai.chunk-summary-prompt-file:classpath:prompts/literature-chunk-summary-prompt.txt}")
+    private String chunkSummaryPromptFile;
+
+    @Value("${literature.ai.chunking.enabled:true}")
+    private boolean chunkingEnabled;
+
+    @Value("${literature.ai.chunking.threshold-tokens:100000}")
+    private int chunkingThresholdTokens;
+
+    @Value("${literature.ai.chunking.summary-max-tokens:2000}")
+    private int chunkSummaryMaxTokens;
+
+    @Value("${literature.ai.retry.max-attempts:4}")
+    private int retryMaxAttempts;
+
+    @Value("${literature.ai.retry.initial-backoff:1000}")
+    private long retryInitialBackoff;
+
+    @Value("${literature.ai.retry.max-backoff:30000}")
+    private long retryMaxBackoff;
+
+    /**
+     * 流式生成：合并增量后发送的字符阈值和最长等待时间（毫秒）
+     */
+    @Value("${literature.sse.guide.flush-chars:256}")
+    private int guideFlushChars;
+
+    @Value("${literature.sse.guide.flush-interval:30}")
+    private long guideFlushInterval;
+
+    /**
+     * 回放已有阅读指南：每帧字符数和最长等待时间（毫秒）
+     */
+    @Value("${literature.sse.replay.flush-chars:4096}")
+    private int replayFlushChars;
+
+    @Value("${literature.sse.replay.flush-interval:30}")
+    private long replayFlushInterval;
+
     private final OkHttpClient httpClient;
     private final ResourceLoader resourceLoader;
+    private final AiRequestScheduler aiRequestScheduler;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final TextChunker textChunker;
+    private final ModelRouter modelRouter;
+    private final ReadingGuideCache readingGuideCache;
 
     // 缓存系统提示词内容
     private String cachedSystemPrompt;
     private String cachedClassificationPrompt;
+    private String cachedChunkSummaryPrompt;
 
-    public LiteratureAiService(ResourceLoader resourceLoader) {
+    public LiteratureAiService(ResourceLoader resourceLoader, OkHttpClient aiHttpClient,
+                               AiRequestScheduler aiRequestScheduler, AdaptiveRateLimiter rateLimiter,
+                               TextChunker textChunker, ModelRouter modelRouter,
+                               ReadingGuideCache readingGuideCache) {
         this.resourceLoader = resourceLoader;
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(5, TimeUnit.MINUTES)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                // 确保使用 UTF-8 编码
-                .addInterceptor(chain -> {
-                    Request original = chain.request();
-                    Request.Builder requestBuilder = original.newBuilder()
-                            .header("Accept-Charset", "UTF-8");
-                    return chain.proceed(requestBuilder.build());
-                })
-                .build();
+        this.httpClient = aiHttpClient;
+        this.aiRequestScheduler = aiRequestScheduler;
+        this.rateLimiter = rateLimiter;
+        this.textChunker = textChunker;
+        this.modelRouter = modelRouter;
+        this.readingGuideCache = readingGuideCache;
     }
 
     /**
@@ -101,6 +180,16 @@ public class LiteratureAiService {
         return cachedClassificationPrompt;
     }
 
+    /**
+     * 获取分段要点提取提示词（带缓存）
+     */
+    private String getChunkSummaryPrompt() {
+        if (cachedChunkSummaryPrompt == null) {
+            cachedChunkSummaryPrompt = loadPromptFromFile(chunkSummaryPromptFile);
+        }
+        return cachedChunkSummaryPrompt;
+    }
+
     /**
      * 从资源文件加载提示词内容
      */
@@ -144,90 +233,294 @@ public class LiteratureAiService {
     /**
      * 生成文献阅读指南（非流式，用于批量导入）
      *
-     * @param apiKey      API Key
-     * @param fileContent 文献内容
+     * @param apiKey   API Key
+     * @param document 文献提取文本
      * @return 生成的阅读指南内容
      */
-    public String generateReadingGuide(String apiKey, String fileContent) {
+    public String generateReadingGuide(String apiKey, ExtractedText document) {
         try {
-            // 构建请求
-            KimiChatRequest chatRequest = buildChatRequest(fileContent);
-            // 设置为非流式
+            // 相同文本、相同提示词和模型配置的阅读指南直接复用
+            String cacheKey = buildGuideCacheKey(document);
+            String cached = readingGuideCache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+
+            // 超长文献先分段并行提取要点，再基于要点生成阅读指南
+            ExtractedText source = document;
+            String userMessage = GUIDE_USER_MESSAGE;
+            if (needsChunking(document)) {
+                source = ExtractedText.ofString(summarizeChunks(apiKey, AiRequestScheduler.Priority.BATCH, document,
+                        message -> log.info("批量导入分段处理: {}", message), new InFlightCalls()));
+                userMessage = REDUCE_USER_MESSAGE;
+            }
+
+            // 构建请求（非流式）
+            KimiChatRequest chatRequest = buildChatRequest(userMessage);
             chatRequest.setStream(false);
-            String requestBody = JSONUtil.toJsonStr(chatRequest);
+            ExtractedText budgeted = applyTokenBudget(chatRequest, source, maxTokens);
 
-            log.info("发送 Kimi AI 非流式请求，模型: {}, 内容长度: {}", model, fileContent.length());
+            log.info("发送 Kimi AI 非流式请求，模型: {}, 内容长度: {}", chatRequest.getModel(), budgeted.length());
 
             // 构建 HTTP 请求（非流式）
-            Request request = new Request.Builder()
-                    .url(baseUrl + "/chat/completions")
-                    .header("Authorization", "Bearer " + apiKey)
-                    .header("Content-Type", "application/json; charset=utf-8")
-                    .header("Accept-Charset", "UTF-8")
-                    .post(RequestBody.create(requestBody, MediaType.parse("application/json; charset=utf-8")))
-                    .build();
-
-            // 同步调用获取完整响应
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    String errorMsg = "Kimi AI 请求失败: " + response.code() + " - " + response.message();
-                    if (response.body() != null) {
-                        errorMsg += " - " + response.body().string();
-                    }
-                    throw new BusinessException(ResultCode.THIRD_PARTY_SERVICE_ERROR, errorMsg);
-                }
+            Request request = buildCompletionRequest(apiKey, new KimiChatRequestBody(chatRequest, budgeted));
+
+            // 批量请求经调度器排队，占用该 API Key 的一个并发许可；限流和服务端错误自动重试
+            ChatCompletion completion = executeWithRetry(apiKey, AiRequestScheduler.Priority.BATCH, request);
+            String content = completion.content();
+
+            log.info("阅读指南生成成功，内容长度: {}", content.length());
+            // 达到 max_tokens 被截断的阅读指南不缓存，下次重新生成
+            if (completion.truncated()) {
+                log.warn("阅读指南输出达到 max_tokens 上限，内容可能不完整，不写入缓存");
+            } else {
+                readingGuideCache.put(cacheKey, content);
+            }
+            return content;
 
-                if (response.body() == null) {
-                    throw new BusinessException(ResultCode.THIRD_PARTY_SERVICE_ERROR, "Kimi AI 响应体为空");
+        } catch (Exception e) {
+            log.error("生成阅读指南失败", e);
+            if (e instanceof BusinessException) {
+                throw (BusinessException) e;
+            }
+            throw new BusinessException(ResultCode.THIRD_PARTY_SERVICE_ERROR, "生成阅读指南失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 阅读指南缓存键：模型配置、生成参数、分段参数、提示词内容和文献文本
+     */
+    private String buildGuideCacheKey(ExtractedText document) {
+        return readingGuideCache.buildKey(document, modelRouter.fingerprint(), temperature, maxTokens,
+                getSystemPrompt(), chunkingEnabled, chunkingThresholdTokens, textChunker.getChunkTokens(),
+                chunkSummaryMaxTokens, getChunkSummaryPrompt());
+    }
+
+    /**
+     * 文献是否超出单次请求的处理上限，需要分段处理
+     */
+    private boolean needsChunking(ExtractedText document) {
+        if (!chunkingEnabled) {
+            return false;
+        }
+        // 超过阈值时分段以缩短单次请求耗时；超出最大模型的上下文时必须分段
+        int documentTokens = document.estimatedTokens();
+        int promptTokens = TokenEstimator.estimate(getSystemPrompt()) + 2 * ModelRouter.MESSAGE_OVERHEAD_TOKENS;
+        return documentTokens > chunkingThresholdTokens
+                || documentTokens + promptTokens > modelRouter.maxInputTokens();
+    }
+
+    /**
+     * 分段并行提取要点（map 阶段）
+     * <p>
+     * 各段请求在虚拟线程中并发提交，实际并发度由调度器按 API Key 控制；任意一段失败时取消其余请求，
+     * 并显式取消已发出的 HTTP 调用。
+     *
+     * @param apiKey   API Key
+     * @param priority 调度优先级
+     * @param document 文献提取文本
+     * @param progress 进度回调
+     * @param calls    分段请求的 HTTP 调用登记，调用方可借此在外部取消（例如会话取消）
+     * @return 按原文顺序拼接的分段要点
+     */
+    private String summarizeChunks(String apiKey, AiRequestScheduler.Priority priority, ExtractedText document,
+                                   Consumer<String> progress, InFlightCalls calls) throws Exception {
+        List<String> chunks = textChunker.split(document);
+        int total = chunks.size();
+        log.info("文献分段处理，内容长度: {}, 分段数: {}", document.length(), total);
+        progress.accept(StrUtil.format("文献较长，已分为 {} 段并行提取要点...", total));
+
+        AtomicInteger finished = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> futures = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                Request request = buildChunkSummaryRequest(apiKey, chunks.get(i), i + 1, total);
+                futures.add(executor.submit(() -> {
+                    String summary = executeWithRetry(apiKey, priority, request, calls).content();
+                    progress.accept(StrUtil.format("已完成 {}/{} 段要点提取", finished.incrementAndGet(), total));
+                    return summary;
+                }));
+            }
+
+            StringBuilder notes = new StringBuilder();
+            try {
+                for (int i = 0; i < total; i++) {
+                    notes.append("## 第 ").append(i + 1).append(" 部分\n\n")
+                            .append(futures.get(i).get().strip())
+                            .append("\n\n");
+                }
+            } catch (ExecutionException | InterruptedException e) {
+                // 一段失败或等待被中断时取消其余分段，关闭 executor 前不必等待它们的 HTTP 请求结束
+                futures.forEach(future -> future.cancel(true));
+                calls.cancelAll();
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
                 }
+                throw e;
+            }
+            log.info("分段要点提取完成，分段数: {}, 要点长度: {}", total, notes.length());
+            return notes.toString();
+        }
+    }
 
-                String responseBody = response.body().string();
-                log.debug("Kimi AI 响应: {}", responseBody);
+    /**
+     * 构建分段要点提取请求
+     */
+    private Request buildChunkSummaryRequest(String apiKey, String chunk, int index, int total) {
+        KimiChatRequest chatRequest = new KimiChatRequest();
+        chatRequest.setTemperature(0.3);
+        chatRequest.setStream(false);
+        chatRequest.setMessages(Arrays.asList(
+                new KimiChatRequest.Message("system", getChunkSummaryPrompt()),
+                new KimiChatRequest.Message("user",
+                        StrUtil.format("以下是文献的第 {}/{} 部分，请提取要点：\n\n", index, total))
+        ));
+        ExtractedText budgeted = applyTokenBudget(chatRequest, ExtractedText.ofString(chunk), chunkSummaryMaxTokens);
+        return buildCompletionRequest(apiKey, new KimiChatRequestBody(chatRequest, budgeted));
+    }
 
-                // 解析响应
-                JSONObject jsonResponse = JSONUtil.parseObj(responseBody);
-                String content = jsonResponse.getJSONArray("choices")
-                        .getJSONObject(0)
-                        .getJSONObject("message")
-                        .getStr("content", "");
+    /**
+     * 构建非流式 HTTP 请求
+     */
+    private Request buildCompletionRequest(String apiKey, RequestBody body) {
+        return new Request.Builder()
+                .url(baseUrl + "/chat/completions")
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .header("Accept-Charset", "UTF-8")
+                .post(body)
+                .build();
+    }
 
-                if (StrUtil.isBlank(content)) {
-                    throw new BusinessException(ResultCode.THIRD_PARTY_SERVICE_ERROR, "AI 返回内容为空");
+    /**
+     * 发送进度事件
+     */
+    private void sendProgress(ResumableSseStream stream, String message) {
+        stream.send("progress", message);
+    }
+
+    /**
+     * 执行非流式聊天请求，遇到限流、服务端错误或网络异常时按抖动指数退避重试
+     * <p>
+     * 限流等待和退避等待期间都不占用调度许可，其他请求（尤其是交互式请求）可以继续执行。
+     */
+    private ChatCompletion executeWithRetry(String apiKey, AiRequestScheduler.Priority priority, Request request)
+            throws Exception {
+        return executeWithRetry(apiKey, priority, request, new InFlightCalls());
+    }
+
+    /**
+     * 执行非流式聊天请求并登记 HTTP 调用，调用被取消后不再重试
+     */
+    private ChatCompletion executeWithRetry(String apiKey, AiRequestScheduler.Priority priority, Request request,
+                                            InFlightCalls calls) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // 先等待限流令牌再申请调度许可：限流等待期间不占用许可，交互式请求不会排在只等令牌的批量请求之后
+                rateLimiter.acquire(apiKey);
+                return aiRequestScheduler.execute(apiKey, priority, () -> executeChatCompletion(apiKey, request, calls));
+            } catch (AiServiceException e) {
+                if (!e.isRetryable() || attempt >= retryMaxAttempts || calls.isCancelled()) {
+                    throw e;
                 }
+                long backoff = Math.max(e.getRetryAfterMillis(), computeBackoff(attempt));
+                log.warn("Kimi AI 请求失败，{} ms 后进行第 {} 次重试: {}", backoff, attempt + 1, e.getMessage());
+                Thread.sleep(backoff);
+            }
+        }
+    }
 
-                log.info("阅读指南生成成功，内容长度: {}", content.length());
-                return content;
+    /**
+     * 带抖动的指数退避（在退避上限的一半到上限之间随机），避免多个请求同时重试
+     */
+    private long computeBackoff(int attempt) {
+        long ceiling = Math.min(retryMaxBackoff, retryInitialBackoff << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    /**
+     * 同步执行非流式聊天请求，返回回复内容和结束原因
+     */
+    private ChatCompletion executeChatCompletion(String apiKey, Request request, InFlightCalls calls) {
+        Call call = calls.track(httpClient.newCall(request));
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful()) {
+                String errorMsg = "Kimi AI 请求失败: " + response.code() + " - " + response.message();
+                if (response.body() != null) {
+                    errorMsg += " - " + response.body().string();
+                }
+                long retryAfterMillis = AdaptiveRateLimiter.parseRetryAfter(response.header("Retry-After"));
+                if (response.code() == 429) {
+                    rateLimiter.onThrottled(apiKey, retryAfterMillis);
+                    throw new AiServiceException(ResultCode.TOO_MANY_REQUESTS, errorMsg, true, retryAfterMillis);
+                }
+                throw new AiServiceException(ResultCode.THIRD_PARTY_SERVICE_ERROR, errorMsg,
+                        response.code() >= 500, retryAfterMillis);
+            }
+            rateLimiter.onSuccess(apiKey);
 
-            } catch (IOException e) {
-                log.error("Kimi AI 请求异常", e);
-                throw new BusinessException(ResultCode.NETWORK_ERROR, "AI 服务请求异常: " + e.getMessage());
+            if (response.body() == null) {
+                throw new BusinessException(ResultCode.THIRD_PARTY_SERVICE_ERROR, "Kimi AI 响应体为空");
             }
 
-        } catch (Exception e) {
-            log.error("生成阅读指南失败", e);
-            if (e instanceof BusinessException) {
-                throw (BusinessException) e;
+            String responseBody = response.body().string();
+            log.debug("Kimi AI 响应: {}", responseBody);
+
+            // 解析响应
+            JSONObject choice = JSONUtil.parseObj(responseBody).getJSONArray("choices").getJSONObject(0);
+            String content = choice.getJSONObject("message").getStr("content", "");
+
+            if (StrUtil.isBlank(content)) {
+                throw new BusinessException(ResultCode.THIRD_PARTY_SERVICE_ERROR, "AI 返回内容为空");
             }
-            throw new BusinessException(ResultCode.THIRD_PARTY_SERVICE_ERROR, "生成阅读指南失败: " + e.getMessage());
+            return new ChatCompletion(content, choice.getStr("finish_reason"));
+
+        } catch (IOException e) {
+            log.error("Kimi AI 请求异常", e);
+            throw new AiServiceException(ResultCode.NETWORK_ERROR, "AI 服务请求异常: " + e.getMessage(), true, 0);
+        } finally {
+            calls.release(call);
         }
     }
 
     /**
      * 生成文献阅读指南（SSE 流式响应）
      *
-     * @param apiKey           API Key
-     * @param fileContent      文献内容
-     * @param sseEmitter       SSE 发射器
-     * @param contentCollector 内容收集器（可选）
+     * @param apiKey   API Key
+     * @param document 文献提取文本
+     * @param session  生成会话（事件写入会话的事件流，生成内容累积到会话中）
      */
-    public void generateReadingGuideStream(String apiKey, String fileContent, SseEmitter sseEmitter, StringBuilder contentCollector) {
+    public void generateReadingGuideStream(String apiKey, ExtractedText document, GuideGenerationSession session) {
+        ResumableSseStream stream = session.getStream();
         CompletableFuture.runAsync(() -> {
             try {
+                // 缓存命中时按实时生成的事件格式回放，前端无需区分
+                String cacheKey = buildGuideCacheKey(document);
+                String cached = readingGuideCache.get(cacheKey);
+                if (cached != null) {
+                    session.appendContent(cached);
+                    replayReadingGuide(cached, stream);
+                    return;
+                }
+
+                // 超长文献先分段并行提取要点（进度实时推送给前端），再流式生成阅读指南
+                ExtractedText source = document;
+                String userMessage = GUIDE_USER_MESSAGE;
+                if (needsChunking(document)) {
+                    // 会话在分段阶段取消时关闭已发出的分段请求
+                    InFlightCalls chunkCalls = new InFlightCalls();
+                    session.onCancel(chunkCalls::cancelAll);
+                    source = ExtractedText.ofString(summarizeChunks(apiKey, AiRequestScheduler.Priority.INTERACTIVE,
+                            document, message -> sendProgress(stream, message), chunkCalls));
+                    userMessage = REDUCE_USER_MESSAGE;
+                    sendProgress(stream, "分段要点提取完成，开始生成阅读指南...");
+                }
+
                 // 构建请求
-                KimiChatRequest chatRequest = buildChatRequest(fileContent);
-                String requestBody = JSONUtil.toJsonStr(chatRequest);
+                KimiChatRequest chatRequest = buildChatRequest(userMessage);
+                ExtractedText budgeted = applyTokenBudget(chatRequest, source, maxTokens);
 
-                log.info("发送 Kimi AI 请求，模型: {}, 内容长度: {}", model, fileContent.length());
+                log.info("发送 Kimi AI 请求，模型: {}, 内容长度: {}", chatRequest.getModel(), budgeted.length());
 
                 // 构建 HTTP 请求
                 Request request = new Request.Builder()
@@ -237,170 +530,288 @@ public class LiteratureAiService {
                         .header("Accept", "text/event-stream")
                         .header("Accept-Charset", "UTF-8")
                         .header("Cache-Control", "no-cache")
-                        .post(RequestBody.create(requestBody, MediaType.parse("application/json; charset=utf-8")))
+                        .post(new KimiChatRequestBody(chatRequest, budgeted))
                         .build();
 
-                // 创建 EventSource 监听器
-                EventSourceListener listener = new EventSourceListener() {
-                    @Override
-                    public void onOpen(EventSource eventSource, Response response) {
-                        log.info("Kimi AI SSE 连接已建立");
+                // 交互式请求优先调度，许可未能立即获得时提示前端正在排队
+                CompletableFuture<AiRequestScheduler.Permit> permitFuture =
+                        aiRequestScheduler.acquire(apiKey, AiRequestScheduler.Priority.INTERACTIVE);
+                if (!permitFuture.isDone()) {
+                    sendProgress(stream, "AI 服务繁忙，正在排队等待...");
+                }
+
+                AtomicBoolean cancelled = new AtomicBoolean(false);
+                AtomicReference<EventSource> eventSourceRef = new AtomicReference<>();
+
+                // 会话取消时取消排队或关闭 EventSource，并归还许可；客户端断开不影响生成
+                Runnable cancelUpstream = () -> {
+                    cancelled.set(true);
+                    permitFuture.cancel(false);
+                    EventSource eventSource = eventSourceRef.get();
+                    if (eventSource != null) {
+                        eventSource.cancel();
                     }
+                    permitFuture.thenAccept(AiRequestScheduler.Permit::close);
+                };
+
+                session.onCancel(() -> {
+                    log.warn("阅读指南生成会话已取消，关闭 EventSource");
+                    cancelUpstream.run();
+                });
 
-                    @Override
-                    public void onEvent(EventSource eventSource, String id, String type, String data) {
-                        try {
-                            // 检查是否为结束标记
-                            if ("[DONE]".equals(data)) {
-                                sseEmitter.send(SseEmitter.event()
-                                        .name("complete")
-                                        .data("生成完成"));
-                                sseEmitter.complete();
-                                return;
-                            }
-
-                            // 跳过空数据
-                            if (StrUtil.isBlank(data)) {
-                                return;
-                            }
-
-                            // 解析 JSON 响应，保持原始格式
-                            JSONObject jsonData = JSONUtil.parseObj(data);
-                            String content = extractContentFromResponse(jsonData);
-
-                            // 注意：不要使用 StrUtil.isNotBlank() 来检查内容
-                            // 因为它会忽略只包含空格的字符串，这正是我们要保留的
-                            if (content != null) {
-                                // 收集内容到 contentCollector（保持原始格式，包括空格）
-                                if (contentCollector != null) {
-                                    contentCollector.append(content);
-                                }
-
-                                // 立即发送内容片段到前端（保持原始格式）
-                                sseEmitter.send(SseEmitter.event()
-                                        .name("content")
-                                        .data(content.replace("\n", "<empty-line>").replace(" ", "<empty-space>")));
-
-                                // 调试日志：显示内容长度和前50个字符（包括空格）
-                                if (log.isDebugEnabled()) {
-                                    String preview = content.length() > 50 ?
-                                            content.substring(0, 50) + "..." : content;
-                                    log.debug("发送内容片段 [长度: {}]: '{}'", content.length(), preview);
-                                }
-                            }
-
-                        } catch (Exception e) {
-                            log.warn("处理 SSE 事件失败 - Data: {}", data, e);
+                permitFuture.whenComplete((permit, throwable) -> {
+                    if (throwable != null) {
+                        if (!cancelled.get()) {
+                            sendStreamError(stream, throwable);
                         }
+                        return;
+                    }
+                    if (cancelled.get()) {
+                        permit.close();
+                        return;
                     }
 
-                    @Override
-                    public void onClosed(EventSource eventSource) {
-                        log.info("Kimi AI SSE 连接已关闭");
+                    Runnable startStream = () -> {
+                        if (cancelled.get()) {
+                            permit.close();
+                            return;
+                        }
+                        // 创建 EventSource 并开始监听
+                        CoalescingSseWriter contentWriter = new CoalescingSseWriter(stream, "content",
+                                guideFlushChars, guideFlushInterval);
+                        EventSource eventSource = EventSources.createFactory(httpClient)
+                                .newEventSource(request, createGuideStreamListener(apiKey, session, contentWriter,
+                                        () -> readingGuideCache.put(cacheKey, session.getContent()), permit));
+                        eventSourceRef.set(eventSource);
+                        // 排队结束与会话取消同时发生时，确保上游请求被关闭
+                        if (cancelled.get()) {
+                            eventSource.cancel();
+                        }
+                    };
+
+                    // 限流等待不阻塞归还许可的线程
+                    long waitMillis = rateLimiter.reserve(apiKey);
+                    if (waitMillis > 0) {
+                        CompletableFuture.runAsync(startStream,
+                                CompletableFuture.delayedExecutor(waitMillis, TimeUnit.MILLISECONDS, GUIDE_EXECUTOR));
+                    } else {
+                        startStream.run();
                     }
+                });
+
+            } catch (Exception e) {
+                sendStreamError(stream, e);
+            }
+        }, GUIDE_EXECUTOR);
+    }
 
-                    @Override
-                    public void onFailure(EventSource eventSource, Throwable t, Response response) {
-                        log.error("Kimi AI SSE 连接失败", t);
-                        try {
-                            String errorMsg = "AI 服务连接失败";
-                            if (response != null) {
-                                errorMsg += ": " + response.code() + " - " + response.message();
-                                if (response.body() != null) {
-                                    errorMsg += " - " + response.body().string();
-                                }
-                            }
-
-                            sseEmitter.send(SseEmitter.event()
-                                    .name("error")
-                                    .data(errorMsg));
-                            sseEmitter.completeWithError(new BusinessException(errorMsg));
-                        } catch (IOException e) {
-                            log.error("发送错误消息失败", e);
-                            sseEmitter.completeWithError(t);
+    /**
+     * 创建阅读指南流式响应监听器，内容增量经合并后发送，上游连接结束时归还调度许可
+     */
+    private EventSourceListener createGuideStreamListener(String apiKey, GuideGenerationSession session,
+                                                          CoalescingSseWriter contentWriter, Runnable onDone,
+                                                          AiRequestScheduler.Permit permit) {
+        ResumableSseStream stream = session.getStream();
+        return new EventSourceListener() {
+            /**
+             * OkHttp 在同一线程中按顺序回调 onEvent，解析器可在整个流中复用
+             */
+            private final ChatStreamChunkParser chunkParser = new ChatStreamChunkParser();
+
+            /**
+             * 输出是否因达到 max_tokens 被截断
+             */
+            private boolean truncated;
+
+            @Override
+            public void onOpen(EventSource eventSource, Response response) {
+                log.info("Kimi AI SSE 连接已建立");
+                rateLimiter.onSuccess(apiKey);
+            }
+
+            @Override
+            public void onEvent(EventSource eventSource, String id, String type, String data) {
+                try {
+                    // 检查是否为结束标记
+                    if ("[DONE]".equals(data)) {
+                        // 被截断的阅读指南不缓存，下次重新生成
+                        if (!truncated) {
+                            onDone.run();
                         }
+                        contentWriter.send("complete", "生成完成");
+                        contentWriter.close();
+                        stream.complete();
+                        return;
                     }
-                };
 
-                // 创建 EventSource 并开始监听
-                EventSource eventSource = EventSources.createFactory(httpClient)
-                        .newEventSource(request, listener);
+                    // 跳过空数据
+                    if (StrUtil.isBlank(data)) {
+                        return;
+                    }
 
-                // 设置 SSE 发射器的回调
-                sseEmitter.onCompletion(() -> {
-                    log.info("SSE 连接完成，关闭 EventSource");
-                    eventSource.cancel();
-                });
+                    // 流式提取内容增量，不构建 JSON 树，保持原始格式
+                    if (!chunkParser.parse(data)) {
+                        return;
+                    }
+                    String content = chunkParser.getContent();
+                    if ("length".equals(chunkParser.getFinishReason())) {
+                        truncated = true;
+                        log.warn("阅读指南输出达到 max_tokens 上限，内容可能不完整，不写入缓存");
+                    }
 
-                sseEmitter.onError((throwable) -> {
-                    log.error("SSE 连接错误，关闭 EventSource", throwable);
-                    eventSource.cancel();
-                });
+                    // 注意：不要使用 StrUtil.isNotBlank() 来检查内容
+                    // 因为它会忽略只包含空格的字符串，这正是我们要保留的
+                    if (content != null) {
+                        // 累积内容到会话（保持原始格式，包括空格）
+                        session.appendContent(content);
 
-                sseEmitter.onTimeout(() -> {
-                    log.warn("SSE 连接超时，关闭 EventSource");
-                    eventSource.cancel();
-                });
+                        // 内容片段合并后发送到前端（保持原始格式）
+                        contentWriter.append(content);
+                    }
 
-            } catch (Exception e) {
-                log.error("生成文献阅读指南失败", e);
+                } catch (Exception e) {
+                    log.warn("处理 SSE 事件失败 - Data: {}", data, e);
+                }
+            }
+
+            @Override
+            public void onClosed(EventSource eventSource) {
+                log.info("Kimi AI SSE 连接已关闭");
+                permit.close();
+                // 上游未发送 [DONE] 就正常关闭连接时内容可能不完整，按失败结束，避免会话永远停留在生成中
+                if (!stream.getCompletion().isDone()) {
+                    String errorMsg = "AI 服务连接在生成完成前关闭";
+                    log.warn("{}，已生成内容长度: {}", errorMsg, session.getContent().length());
+                    contentWriter.send("error", errorMsg);
+                    contentWriter.close();
+                    stream.completeWithError(new BusinessException(errorMsg));
+                }
+            }
+
+            @Override
+            public void onFailure(EventSource eventSource, Throwable t, Response response) {
+                permit.close();
+                if (response != null && response.code() == 429) {
+                    rateLimiter.onThrottled(apiKey, AdaptiveRateLimiter.parseRetryAfter(response.header("Retry-After")));
+                }
+                log.error("Kimi AI SSE 连接失败", t);
                 try {
-                    sseEmitter.send(SseEmitter.event()
-                            .name("error")
-                            .data("生成文献阅读指南失败: " + e.getMessage()));
-                    sseEmitter.completeWithError(e);
-                } catch (IOException ioException) {
-                    log.error("发送错误消息失败", ioException);
-                    sseEmitter.completeWithError(ioException);
+                    String errorMsg = "AI 服务连接失败";
+                    if (response != null) {
+                        errorMsg += ": " + response.code() + " - " + response.message();
+                        if (response.body() != null) {
+                            errorMsg += " - " + response.body().string();
+                        }
+                    }
+
+                    contentWriter.send("error", errorMsg);
+                    contentWriter.close();
+                    stream.completeWithError(new BusinessException(errorMsg));
+                } catch (IOException e) {
+                    log.error("读取错误响应失败", e);
+                    contentWriter.close();
+                    stream.completeWithError(t);
                 }
             }
-        });
+        };
     }
 
     /**
-     * 构建聊天请求
+     * 向前端发送错误事件并结束 SSE 流
      */
-    private KimiChatRequest buildChatRequest(String fileContent) {
+    private void sendStreamError(ResumableSseStream stream, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        log.error("生成文献阅读指南失败", cause);
+        stream.send("error", "生成文献阅读指南失败: " + cause.getMessage());
+        stream.completeWithError(cause);
+    }
+
+    /**
+     * 回放已有的阅读指南（SSE 流式响应，事件格式与实时生成一致）
+     *
+     * @param readingGuide 已有的阅读指南内容
+     * @param stream       可续传的 SSE 事件流
+     */
+    public void replayReadingGuide(String readingGuide, ResumableSseStream stream) {
+        try {
+            CoalescingSseWriter contentWriter = new CoalescingSseWriter(stream, "content",
+                    replayFlushChars, replayFlushInterval);
+            int chunkSize = 512;
+            int start = 0;
+            while (start < readingGuide.length()) {
+                int end = Math.min(readingGuide.length(), start + chunkSize);
+                // 避免拆开代理对
+                if (end < readingGuide.length() && Character.isHighSurrogate(readingGuide.charAt(end - 1))) {
+                    end--;
+                }
+                contentWriter.append(readingGuide.substring(start, end));
+                start = end;
+            }
+
+            contentWriter.send("complete", "生成完成");
+            contentWriter.close();
+            stream.complete();
+            log.info("回放已有阅读指南完成，内容长度: {}", readingGuide.length());
+        } catch (Exception e) {
+            log.warn("回放阅读指南失败", e);
+            stream.completeWithError(e);
+        }
+    }
+
+    /**
+     * 构建聊天请求（文献内容由 {@link KimiChatRequestBody} 流式追加到用户消息之后）
+     *
+     * @param userMessage 文献内容之前的用户消息
+     */
+    private KimiChatRequest buildChatRequest(String userMessage) {
         KimiChatRequest request = new KimiChatRequest();
-        request.setModel(model);
-        request.setMaxTokens(maxTokens);
         request.setTemperature(temperature);
         request.setStream(true);
 
         // 构建消息，使用从文件加载的系统提示词
         request.setMessages(Arrays.asList(
                 new KimiChatRequest.Message("system", getSystemPrompt()),
-                new KimiChatRequest.Message("user", "请为以下文献生成阅读指南：\n\n" + fileContent)
+                new KimiChatRequest.Message("user", userMessage)
         ));
 
         return request;
     }
 
     /**
-     * 从响应中提取内容（保持原始格式，包括空格）
+     * 按估算的输入 token 数选择模型并设置 max_tokens
+     * <p>
+     * 最大的模型也放不下时截断文献内容（分段处理关闭、或分段要点汇总后仍然过长时的兜底），
+     * 避免请求被服务端以超出上下文拒绝。
+     *
+     * @param request      聊天请求（消息不含文献内容）
+     * @param document     追加在最后一条消息之后的文献内容
+     * @param outputTokens 期望的输出 token 数上限
+     * @return 实际发送的文献内容
      */
-    private String extractContentFromResponse(JSONObject jsonData) {
-        try {
-            // 使用更安全的方式提取内容，避免空格丢失
-            JSONObject delta = jsonData.getJSONArray("choices")
-                    .getJSONObject(0)
-                    .getJSONObject("delta");
-
-            // 检查是否存在 content 字段
-            if (delta.containsKey("content")) {
-                Object contentObj = delta.get("content");
-                if (contentObj != null) {
-                    // 直接返回字符串，不进行任何 trim 或格式化操作
-                    return contentObj.toString();
-                }
-            }
-
-            return null; // 返回 null 而不是空字符串，让调用方判断
+    private ExtractedText applyTokenBudget(KimiChatRequest request, ExtractedText document, int outputTokens) {
+        int promptTokens = 0;
+        for (KimiChatRequest.Message message : request.getMessages()) {
+            promptTokens += TokenEstimator.estimate(message.getContent()) + ModelRouter.MESSAGE_OVERHEAD_TOKENS;
+        }
 
-        } catch (Exception e) {
-            log.debug("提取内容失败: {}", jsonData, e);
-            return null;
+        ExtractedText budgeted = document;
+        ModelRouter.ModelPlan plan = modelRouter.plan(promptTokens + document.estimatedTokens(), outputTokens);
+        if (plan == null) {
+            int documentBudget = modelRouter.maxInputTokens() - promptTokens;
+            if (documentBudget <= 0) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "提示词超出模型上下文长度");
+            }
+            log.warn("文献内容超出模型上下文，截断至约 {} tokens，原始估算: {} tokens", documentBudget, document.estimatedTokens());
+            budgeted = document.truncate(documentBudget);
+            plan = modelRouter.plan(promptTokens + budgeted.estimatedTokens(), outputTokens);
         }
+
+        request.setModel(plan.getModel());
+        request.setMaxTokens(plan.getMaxTokens());
+        log.debug("请求 token 预算，模型: {}, 输入约 {} tokens, max_tokens: {}",
+                plan.getModel(), plan.getInputTokens(), plan.getMaxTokens());
+        return budgeted;
     }
 
     /**
@@ -417,71 +828,30 @@ public class LiteratureAiService {
         Thread.startVirtualThread(() -> {
             try {
                 // 构建分类请求
-                KimiChatRequest chatRequest = buildClassificationRequest(readingGuide);
-                String requestBody = JSONUtil.toJsonStr(chatRequest);
+                KimiChatRequest chatRequest = buildClassificationRequest();
+                // 分类响应不需要太多 token
+                ExtractedText budgeted = applyTokenBudget(chatRequest, ExtractedText.ofString(readingGuide), 500);
 
-                log.info("发送文献分类请求，模型: {}, 内容长度: {}", model, readingGuide.length());
+                log.info("发送文献分类请求，模型: {}, 内容长度: {}", chatRequest.getModel(), readingGuide.length());
 
                 // 构建 HTTP 请求（非流式）
-                Request request = new Request.Builder()
-                        .url(baseUrl + "/chat/completions")
-                        .header("Authorization", "Bearer " + apiKey)
-                        .header("Content-Type", "application/json; charset=utf-8")
-                        .header("Accept-Charset", "UTF-8")
-                        .post(RequestBody.create(requestBody, MediaType.parse("application/json; charset=utf-8")))
-                        .build();
-
-                // 同步调用获取完整响应
-                try (Response response = httpClient.newCall(request).execute()) {
-                    if (!response.isSuccessful()) {
-                        String errorMsg = "Kimi AI 分类请求失败: " + response.code() + " - " + response.message();
-                        if (response.body() != null) {
-                            errorMsg += " - " + response.body().string();
-                        }
-                        log.error(errorMsg);
-                        literatureService.updateStatus(literatureId, com.yuyuan.literature.entity.Literature.Status.COMPLETED.getCode());
-                        return;
-                    }
-
-                    if (response.body() == null) {
-                        log.error("AI 响应内容为空");
-                        literatureService.updateStatus(literatureId, com.yuyuan.literature.entity.Literature.Status.COMPLETED.getCode());
-                        return;
-                    }
-
-                    String responseBody = response.body().string();
-                    log.debug("AI 分类响应: {}", responseBody);
-
-                    // 解析响应获取分类内容
-                    JSONObject jsonResponse = JSONUtil.parseObj(responseBody);
-                    String content = jsonResponse.getJSONArray("choices")
-                            .getJSONObject(0)
-                            .getJSONObject("message")
-                            .getStr("content", "");
+                Request request = buildCompletionRequest(apiKey, new KimiChatRequestBody(chatRequest, budgeted));
 
-                    if (StrUtil.isBlank(content)) {
-                        log.error("AI 返回的分类内容为空");
-                        literatureService.updateStatus(literatureId, com.yuyuan.literature.entity.Literature.Status.COMPLETED.getCode());
-                        return;
-                    }
+                // 分类为后台任务，排在交互式和批量请求之后
+                String content = executeWithRetry(apiKey, AiRequestScheduler.Priority.BACKGROUND, request).content();
 
-                    // 解析分类结果并直接保存到数据库
-                    try {
-                        com.yuyuan.literature.dto.ClassificationResponse classification =
-                                JSONUtil.toBean(content.trim(), com.yuyuan.literature.dto.ClassificationResponse.class);
+                // 解析分类结果并直接保存到数据库
+                try {
+                    com.yuyuan.literature.dto.ClassificationResponse classification =
+                            JSONUtil.toBean(content.trim(), com.yuyuan.literature.dto.ClassificationResponse.class);
 
-                        // 更新数据库
-                        literatureService.updateClassification(literatureId, classification.getTags(), classification.getDesc());
-                        log.info("文献分类生成并保存成功，ID: {}, 标签数量: {}", literatureId, classification.getTags().size());
+                    // 更新数据库
+                    literatureService.updateClassification(literatureId, classification.getTags(), classification.getDesc());
+                    log.info("文献分类生成并保存成功，ID: {}, 标签数量: {}", literatureId, classification.getTags().size());
 
-                    } catch (Exception e) {
-                        log.error("解析分类结果失败: {}", content, e);
-                        // 即使分类失败，也标记为完成状态
-                        literatureService.updateStatus(literatureId, com.yuyuan.literature.entity.Literature.Status.COMPLETED.getCode());
-                    }
-
-                } catch (IOException e) {
-                    log.error("调用 AI 分类服务失败", e);
+                } catch (Exception e) {
+                    log.error("解析分类结果失败: {}", content, e);
+                    // 即使分类失败，也标记为完成状态
                     literatureService.updateStatus(literatureId, com.yuyuan.literature.entity.Literature.Status.COMPLETED.getCode());
                 }
 
@@ -493,12 +863,10 @@ public class LiteratureAiService {
     }
 
     /**
-     * 构建分类请求
+     * 构建分类请求（阅读指南由 {@link KimiChatRequestBody} 追加到用户消息之后）
      */
-    private KimiChatRequest buildClassificationRequest(String readingGuide) {
+    private KimiChatRequest buildClassificationRequest() {
         KimiChatRequest request = new KimiChatRequest();
-        request.setModel(model);
-        request.setMaxTokens(500); // 分类响应不需要太多 token
         request.setResponseFormat(
                 KimiChatRequest.ResponseFormat.builder()
                         .type("json_object")
@@ -510,7 +878,7 @@ public class LiteratureAiService {
         // 构建消息，使用从文件加载的分类提示词
         request.setMessages(Arrays.asList(
                 new KimiChatRequest.Message("system", getClassificationPrompt()),
-                new KimiChatRequest.Message("user", "请为以下文献阅读指南生成分类和描述：\n\n" + readingGuide)
+                new KimiChatRequest.Message("user", "请为以下文献阅读指南生成分类和描述：\n\n")
         ));
 
         return request;
@@ -528,4 +896,20 @@ public class LiteratureAiService {
             throw new BusinessException(ResultCode.BAD_REQUEST, "API Key 格式错误");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 非流式聊天请求的结果
+     *
+     * @param content      回复内容
+     * @param finishReason 结束原因（stop、length 等）
+     */
+    private record ChatCompletion(String content, String finishReason) {
+
+        /**
+         * 输出是否因达到 max_tokens 被截断
+         */
+        boolean truncated() {
+            return "length".equals(finishReason);
+        }
+    }
+}
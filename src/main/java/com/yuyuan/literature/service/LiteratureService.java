@@ -24,10 +24,43 @@ public interface LiteratureService extends IService<Literature> {
      *
      * @param file 上传的文件
      * @param filePath 文件存储路径
+     * @param contentHash 文件内容哈希
      * @param contentLength 内容长度
      * @return 文献ID
      */
-    Long createLiterature(MultipartFile file, String filePath, Integer contentLength);
+    Long createLiterature(MultipartFile file, String filePath, String contentHash, Integer contentLength);
+
+    /**
+     * 根据文件内容哈希查找可复用的文献（优先返回已生成阅读指南的记录）
+     *
+     * @param contentHash 文件内容哈希
+     * @return 可复用的文献，不存在时返回 null
+     */
+    Literature findReusableLiterature(String contentHash);
+
+    /**
+     * 基于已有的相同文献创建新记录，复用其阅读指南和分类结果
+     *
+     * @param file 上传的文件
+     * @param filePath 文件存储路径
+     * @param contentHash 文件内容哈希
+     * @param source 被复用的文献
+     * @param apiKey API Key（被复用文献尚未分类时用于补充分类）
+     * @return 文献ID
+     */
+    Long createFromDuplicate(MultipartFile file, String filePath, String contentHash, Literature source, String apiKey);
+
+    /**
+     * 新记录提交后改为引用已存储的相同文件，并删除本次上传的副本
+     * <p>
+     * 与删除文献时的引用统计按文件路径互斥；已存储的文件已不存在时保留本次上传的副本。
+     *
+     * @param literatureId     已提交的新文献ID
+     * @param uploadedFilePath 本次上传保存的文件路径
+     * @param existingFilePath 已存储的相同内容文件路径
+     * @return 新记录最终引用的文件路径
+     */
+    String shareStoredFile(Long literatureId, String uploadedFilePath, String existingFilePath);
 
     /**
      * 更新阅读指南
@@ -62,6 +95,14 @@ public interface LiteratureService extends IService<Literature> {
      */
     PageResult<LiteratureVO> pageLiteratures(LiteratureQueryRequest request);
 
+    /**
+     * 游标分页查询文献（按创建时间排序）
+     *
+     * @param request 查询条件
+     * @return 分页结果，nextCursor 为下一页游标
+     */
+    PageResult<LiteratureVO> pageLiteraturesByCursor(LiteratureQueryRequest request);
+
     /**
      * 根据ID获取文献详情
      *
@@ -74,17 +115,21 @@ public interface LiteratureService extends IService<Literature> {
      * 根据ID下载文献文件
      *
      * @param id 文献ID
+     * @param request HTTP请求对象
      * @param response HTTP响应对象
      */
-    void downloadLiteratureFile(Long id, jakarta.servlet.http.HttpServletResponse response);
+    void downloadLiteratureFile(Long id, jakarta.servlet.http.HttpServletRequest request,
+                                jakarta.servlet.http.HttpServletResponse response);
 
     /**
      * 根据ID预览文献文件
      *
      * @param id 文献ID
+     * @param request HTTP请求对象
      * @param response HTTP响应对象
      */
-    void previewLiteratureFile(Long id, jakarta.servlet.http.HttpServletResponse response);
+    void previewLiteratureFile(Long id, jakarta.servlet.http.HttpServletRequest request,
+                               jakarta.servlet.http.HttpServletResponse response);
 
     /**
      * 获取文献文件本地路径
@@ -0,0 +1,110 @@
+package com.yuyuan.literature.service;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.yuyuan.literature.dto.TagFacetVO;
+import com.yuyuan.literature.entity.LiteratureTag;
+import com.yuyuan.literature.mapper.LiteratureTagMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 文献标签服务
+ * <p>
+ * 维护 literature_tag 关联表：文献的 tags 字段仍保存完整标签列表用于展示，
+ * 按标签筛选和标签统计则走关联表上的索引。已有数据由 Flyway 迁移 V8 从 tags 字段补齐。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiteratureTagService {
+
+    /**
+     * 单个标签最大长度（与 literature_tag.tag 列一致）
+     */
+    public static final int MAX_TAG_LENGTH = 200;
+
+    private final LiteratureTagMapper literatureTagMapper;
+
+    /**
+     * 替换文献的全部标签
+     *
+     * @param literatureId 文献ID
+     * @param tags         标签列表
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void replaceTags(Long literatureId, List<String> tags) {
+        deleteTags(literatureId);
+        List<LiteratureTag> rows = toRows(literatureId, tags);
+        if (!rows.isEmpty()) {
+            literatureTagMapper.insertBatch(rows);
+        }
+    }
+
+    /**
+     * 删除文献的全部标签
+     *
+     * @param literatureId 文献ID
+     */
+    public void deleteTags(Long literatureId) {
+        literatureTagMapper.delete(new LambdaQueryWrapper<LiteratureTag>()
+                .eq(LiteratureTag::getLiteratureId, literatureId));
+    }
+
+    /**
+     * 标签统计
+     *
+     * @param limit 返回的标签数上限
+     * @return 按文献数量降序排列的标签统计
+     */
+    public List<TagFacetVO> getTagFacets(int limit) {
+        return literatureTagMapper.selectTagFacets(limit);
+    }
+
+    /**
+     * 规范化标签列表：去除空白和重复标签，丢弃超过 {@value #MAX_TAG_LENGTH} 个字符的标签
+     * <p>
+     * 文献的 tags 字段和关联表都保存规范化后的结果，两者保持一致，不截断标签。
+     *
+     * @param tags 标签列表
+     * @return 规范化后的标签列表
+     */
+    public static List<String> normalizeTags(List<String> tags) {
+        if (CollUtil.isEmpty(tags)) {
+            return List.of();
+        }
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String tag : tags) {
+            if (StrUtil.isBlank(tag)) {
+                continue;
+            }
+            String trimmed = tag.trim();
+            if (trimmed.length() > MAX_TAG_LENGTH) {
+                log.warn("标签超过 {} 个字符，已忽略: {}", MAX_TAG_LENGTH, StrUtil.maxLength(trimmed, 50));
+                continue;
+            }
+            distinct.add(trimmed);
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    private static List<LiteratureTag> toRows(Long literatureId, List<String> tags) {
+        List<String> normalized = normalizeTags(tags);
+        List<LiteratureTag> rows = new ArrayList<>(normalized.size());
+        for (String tag : normalized) {
+            rows.add(new LiteratureTag(literatureId, tag));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,187 @@
+package com.yuyuan.literature.service.ai;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应限流器
+ * <p>
+ * 每个 API Key 一个令牌桶，发送速率按 AIMD 方式调整：请求成功时速率线性增加，
+ * 收到 429 时速率减半，并在 Retry-After 指定的时间内暂停发送。
+ * 速率会收敛到服务端实际允许的水平附近，批量导入不再把大部分时间浪费在被限流的请求上。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class AdaptiveRateLimiter {
+
+    @Value("${literature.ai.rate-limit.initial-rate:2.0}")
+    private double initialRate;
+
+    @Value("${literature.ai.rate-limit.min-rate:0.05}")
+    private double minRate;
+
+    @Value("${literature.ai.rate-limit.max-rate:10.0}")
+    private double maxRate;
+
+    @Value("${literature.ai.rate-limit.increase-step:0.1}")
+    private double increaseStep;
+
+    @Value("${literature.ai.rate-limit.decrease-factor:0.5}")
+    private double decreaseFactor;
+
+    private final Map<String, KeyBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 预约一个令牌
+     *
+     * @param apiKey API Key
+     * @return 发送前需要等待的毫秒数，0 表示可以立即发送
+     */
+    public long reserve(String apiKey) {
+        return bucket(apiKey).reserve(System.nanoTime());
+    }
+
+    /**
+     * 获取一个令牌，必要时阻塞等待
+     *
+     * @param apiKey API Key
+     */
+    public void acquire(String apiKey) throws InterruptedException {
+        long waitMillis = reserve(apiKey);
+        if (waitMillis > 0) {
+            log.debug("AI 请求限流等待 {} ms，Key: {}", waitMillis, AiRequestScheduler.maskApiKey(apiKey));
+            Thread.sleep(waitMillis);
+        }
+    }
+
+    /**
+     * 请求成功，线性提升速率
+     *
+     * @param apiKey API Key
+     */
+    public void onSuccess(String apiKey) {
+        bucket(apiKey).increase(increaseStep, maxRate);
+    }
+
+    /**
+     * 请求被限流，速率按比例下降并暂停发送
+     *
+     * @param apiKey           API Key
+     * @param retryAfterMillis 服务端要求的等待时间（毫秒），未指定时为 0
+     */
+    public void onThrottled(String apiKey, long retryAfterMillis) {
+        double rate = bucket(apiKey).decrease(decreaseFactor, minRate, retryAfterMillis, System.nanoTime());
+        log.warn("AI 请求被限流，Key: {}, 调整后速率: {} 次/秒, Retry-After: {} ms",
+                AiRequestScheduler.maskApiKey(apiKey), String.format("%.2f", rate), retryAfterMillis);
+    }
+
+    /**
+     * 各 API Key 的当前速率（次/秒），Key 已遮蔽
+     */
+    public Map<String, Double> getRates() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        buckets.forEach((apiKey, bucket) -> rates.put(AiRequestScheduler.maskApiKey(apiKey), bucket.rate()));
+        return rates;
+    }
+
+    /**
+     * 解析 Retry-After 响应头（秒数或 HTTP 日期）
+     *
+     * @param retryAfter 响应头内容
+     * @return 等待毫秒数，无法解析时返回 0
+     */
+    public static long parseRetryAfter(String retryAfter) {
+        if (StrUtil.isBlank(retryAfter)) {
+            return 0;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value) * 1000));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    private KeyBucket bucket(String apiKey) {
+        return buckets.computeIfAbsent(apiKey, key -> new KeyBucket(initialRate, System.nanoTime()));
+    }
+
+    /**
+     * 单个 API Key 的令牌桶（允许预约为负，负数部分即排在前面的请求需要等待的时间）
+     */
+    private static final class KeyBucket {
+
+        private double rate;
+        private double tokens;
+        private long lastRefillNanos;
+        private long blockedUntilNanos;
+
+        KeyBucket(double rate, long now) {
+            this.rate = rate;
+            this.tokens = capacity();
+            this.lastRefillNanos = now;
+            this.blockedUntilNanos = now;
+        }
+
+        synchronized long reserve(long now) {
+            refill(now);
+            tokens -= 1;
+            long waitNanos = tokens < 0 ? (long) (-tokens / rate * TimeUnit.SECONDS.toNanos(1)) : 0;
+            waitNanos = Math.max(waitNanos, blockedUntilNanos - now);
+            return waitNanos <= 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1;
+        }
+
+        synchronized void increase(double step, double maxRate) {
+            rate = Math.min(maxRate, rate + step);
+        }
+
+        synchronized double decrease(double factor, double minRate, long retryAfterMillis, long now) {
+            refill(now);
+            rate = Math.max(minRate, rate * factor);
+            // 已积累的令牌作废，避免限流刚结束就突发一批请求
+            tokens = Math.min(tokens, 0);
+            if (retryAfterMillis > 0) {
+                blockedUntilNanos = Math.max(blockedUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+            }
+            return rate;
+        }
+
+        synchronized double rate() {
+            return rate;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefillNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity(), tokens + elapsed * rate / TimeUnit.SECONDS.toNanos(1));
+                lastRefillNanos = now;
+            }
+        }
+
+        /**
+         * 桶容量：最多积累一秒的令牌，且至少为 1
+         */
+        private double capacity() {
+            return Math.max(1, rate);
+        }
+    }
+}
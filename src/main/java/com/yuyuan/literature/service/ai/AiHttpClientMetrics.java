@@ -0,0 +1,74 @@
+package com.yuyuan.literature.service.ai;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AI HTTP 客户端调用统计
+ * <p>
+ * 作为 OkHttp 的事件监听器统计调用数、新建连接数和 HTTP/2 连接数，
+ * 结合调度器的排队/执行数即可判断连接复用情况和并发上限是否合适。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Component
+public class AiHttpClientMetrics extends EventListener {
+
+    private final AtomicLong callsStarted = new AtomicLong();
+    private final AtomicLong callsFailed = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong http2Connections = new AtomicLong();
+    private final AtomicLong connectionsAcquired = new AtomicLong();
+
+    @Override
+    public void callStart(Call call) {
+        callsStarted.incrementAndGet();
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        callsFailed.incrementAndGet();
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        connectionsOpened.incrementAndGet();
+        if (protocol == Protocol.HTTP_2) {
+            http2Connections.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        connectionsAcquired.incrementAndGet();
+    }
+
+    public long getCallsStarted() {
+        return callsStarted.get();
+    }
+
+    public long getCallsFailed() {
+        return callsFailed.get();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.get();
+    }
+
+    public long getHttp2Connections() {
+        return http2Connections.get();
+    }
+
+    public long getConnectionsAcquired() {
+        return connectionsAcquired.get();
+    }
+}
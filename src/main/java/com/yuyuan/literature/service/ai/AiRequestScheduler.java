@@ -0,0 +1,276 @@
+package com.yuyuan.literature.service.ai;
+
+import com.yuyuan.literature.common.exception.BusinessException;
+import com.yuyuan.literature.common.result.ResultCode;
+import com.yuyuan.literature.dto.AiSchedulerStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AI 请求调度器
+ * <p>
+ * 所有发往 Kimi 的请求都在此按 API Key 限制并发：每个 Key 持有固定数量的许可，
+ * 超出的请求按优先级排队（交互式流式生成 > 批量导入 > 后台分类），同优先级先进先出。
+ * 队列已满时直接拒绝，避免并发请求集中触发 429 后整体雪崩。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class AiRequestScheduler {
+
+    /**
+     * 请求优先级（声明顺序即调度顺序）
+     */
+    public enum Priority {
+        /**
+         * 交互式请求（前端实时生成阅读指南）
+         */
+        INTERACTIVE,
+        /**
+         * 批量导入
+         */
+        BATCH,
+        /**
+         * 后台任务（分类等）
+         */
+        BACKGROUND
+    }
+
+    @Value("${literature.ai.scheduler.max-concurrent-per-key:4}")
+    private int maxConcurrentPerKey;
+
+    @Value("${literature.ai.scheduler.max-queue-size:200}")
+    private int maxQueueSize;
+
+    @Value("${literature.ai.scheduler.queue-timeout:1800000}")
+    private long queueTimeout;
+
+    private final Map<String, KeyLane> lanes = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 申请许可（异步），许可用完后必须调用 {@link Permit#close()} 归还
+     *
+     * @param apiKey   API Key
+     * @param priority 优先级
+     * @return 获得许可时完成的 Future
+     */
+    public CompletableFuture<Permit> acquire(String apiKey, Priority priority) {
+        KeyLane lane = lanes.computeIfAbsent(apiKey, key -> new KeyLane(key, maxConcurrentPerKey));
+        return lane.acquire(priority, sequence.incrementAndGet(), maxQueueSize);
+    }
+
+    /**
+     * 在许可保护下同步执行请求
+     *
+     * @param apiKey   API Key
+     * @param priority 优先级
+     * @param task     请求任务
+     * @return 任务结果
+     */
+    public <T> T execute(String apiKey, Priority priority, Callable<T> task) throws Exception {
+        try (Permit ignored = awaitPermit(acquire(apiKey, priority))) {
+            return task.call();
+        }
+    }
+
+    /**
+     * 当前调度统计
+     */
+    public AiSchedulerStats getStats() {
+        AiSchedulerStats stats = new AiSchedulerStats();
+        stats.setMaxConcurrentPerKey(maxConcurrentPerKey);
+        stats.setMaxQueueSize(maxQueueSize);
+
+        List<AiSchedulerStats.KeyStats> keyStatsList = new ArrayList<>();
+        for (KeyLane lane : lanes.values()) {
+            keyStatsList.add(lane.snapshot());
+        }
+        stats.setKeys(keyStatsList);
+        stats.setTotalRunning(keyStatsList.stream().mapToInt(AiSchedulerStats.KeyStats::getRunning).sum());
+        stats.setTotalQueued(keyStatsList.stream().mapToInt(AiSchedulerStats.KeyStats::getQueued).sum());
+        return stats;
+    }
+
+    private Permit awaitPermit(CompletableFuture<Permit> future) throws InterruptedException {
+        try {
+            return future.get(queueTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancelOrRelease(future);
+            throw new BusinessException(ResultCode.TIMEOUT_ERROR, "AI 请求排队超时，请稍后重试");
+        } catch (InterruptedException e) {
+            cancelOrRelease(future);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            throw new BusinessException(ResultCode.ERROR, "AI 请求调度失败: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 取消排队；若许可恰好已分配则立即归还
+     */
+    private void cancelOrRelease(CompletableFuture<Permit> future) {
+        if (!future.cancel(false)) {
+            future.thenAccept(Permit::close);
+        }
+    }
+
+    /**
+     * 遮蔽 API Key，仅用于日志和统计
+     */
+    static String maskApiKey(String apiKey) {
+        if (apiKey == null || apiKey.length() <= 10) {
+            return "***";
+        }
+        return apiKey.substring(0, 6) + "***" + apiKey.substring(apiKey.length() - 4);
+    }
+
+    /**
+     * 请求许可，close 可重复调用
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final KeyLane lane;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(KeyLane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                lane.release();
+            }
+        }
+    }
+
+    /**
+     * 单个 API Key 的许可和等待队列
+     */
+    private static final class KeyLane {
+
+        private final String maskedKey;
+        private final int permits;
+        private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+                Comparator.comparing((Waiter waiter) -> waiter.priority).thenComparingLong(waiter -> waiter.sequence));
+
+        private int running;
+        private long completed;
+        private long rejected;
+        private long totalWaitMillis;
+        private long grantedAfterWait;
+
+        KeyLane(String apiKey, int permits) {
+            this.maskedKey = maskApiKey(apiKey);
+            this.permits = permits;
+        }
+
+        CompletableFuture<Permit> acquire(Priority priority, long sequence, int maxQueueSize) {
+            synchronized (this) {
+                if (running < permits && waiters.isEmpty()) {
+                    running++;
+                    return CompletableFuture.completedFuture(new Permit(this));
+                }
+                if (waiters.size() >= maxQueueSize) {
+                    rejected++;
+                    log.warn("AI 请求队列已满，拒绝请求，Key: {}, 队列长度: {}", maskedKey, waiters.size());
+                    return CompletableFuture.failedFuture(
+                            new BusinessException(ResultCode.TOO_MANY_REQUESTS, "AI 服务繁忙，请稍后重试"));
+                }
+                Waiter waiter = new Waiter(priority, sequence);
+                waiters.add(waiter);
+                // 排队取消时移出队列
+                waiter.future.whenComplete((permit, throwable) -> {
+                    if (throwable instanceof CancellationException) {
+                        synchronized (this) {
+                            waiters.remove(waiter);
+                        }
+                    }
+                });
+                log.debug("AI 请求进入队列，Key: {}, 优先级: {}, 队列长度: {}", maskedKey, priority, waiters.size());
+                return waiter.future;
+            }
+        }
+
+        void release() {
+            synchronized (this) {
+                completed++;
+            }
+            while (true) {
+                Waiter next;
+                synchronized (this) {
+                    next = waiters.poll();
+                    if (next == null) {
+                        running--;
+                        return;
+                    }
+                }
+                // 许可直接转交给下一个等待者；等待者已取消时继续转交
+                if (next.future.complete(new Permit(this))) {
+                    synchronized (this) {
+                        totalWaitMillis += System.currentTimeMillis() - next.enqueueTime;
+                        grantedAfterWait++;
+                    }
+                    return;
+                }
+            }
+        }
+
+        synchronized AiSchedulerStats.KeyStats snapshot() {
+            AiSchedulerStats.KeyStats stats = new AiSchedulerStats.KeyStats();
+            stats.setApiKey(maskedKey);
+            stats.setPermits(permits);
+            stats.setRunning(running);
+            stats.setQueued(waiters.size());
+            Map<String, Integer> queuedByPriority = new LinkedHashMap<>();
+            for (Priority priority : Priority.values()) {
+                queuedByPriority.put(priority.name(), 0);
+            }
+            for (Waiter waiter : waiters) {
+                queuedByPriority.merge(waiter.priority.name(), 1, Integer::sum);
+            }
+            stats.setQueuedByPriority(queuedByPriority);
+            stats.setCompleted(completed);
+            stats.setRejected(rejected);
+            stats.setAvgWaitMillis(grantedAfterWait == 0 ? 0 : totalWaitMillis / grantedAfterWait);
+            return stats;
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Priority priority;
+        private final long sequence;
+        private final long enqueueTime = System.currentTimeMillis();
+        private final CompletableFuture<Permit> future = new CompletableFuture<>();
+
+        Waiter(Priority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
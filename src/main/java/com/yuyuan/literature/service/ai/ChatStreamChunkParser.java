@@ -0,0 +1,98 @@
+package com.yuyuan.literature.service.ai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * 流式对话响应分片解析器
+ * <p>
+ * 从 Kimi（OpenAI 兼容）SSE 分片 {@code {"choices":[{"delta":{"content":"..."},"finish_reason":null}]}}
+ * 中提取 {@code choices[0].delta.content} 和 {@code choices[0].finish_reason}。
+ * 使用 Jackson 逐个读取 token，不构建 JSON 树，无关字段直接跳过，读到第一个 choice 结束即停止，
+ * 每个分片只分配解析器本身和提取出的字符串。
+ * <p>
+ * 实例保存最近一次解析结果，非线程安全，每个流使用一个实例。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+public final class ChatStreamChunkParser {
+
+    /**
+     * JsonFactory 线程安全，内部复用读缓冲
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private String content;
+    private String finishReason;
+
+    /**
+     * 解析一个分片
+     *
+     * @param data SSE 事件数据
+     * @return 分片包含 choices[0] 时返回 true
+     * @throws IOException JSON 格式错误
+     */
+    public boolean parse(String data) throws IOException {
+        content = null;
+        finishReason = null;
+        try (JsonParser parser = JSON_FACTORY.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                    return parser.nextToken() == JsonToken.START_OBJECT && readChoice(parser);
+                }
+                parser.skipChildren();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 本次分片的内容增量，分片不含 content 或 content 为 null 时返回 null（保留只含空白的内容）
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * 本次分片的结束原因（stop、length 等），未结束时返回 null
+     */
+    public String getFinishReason() {
+        return finishReason;
+    }
+
+    private boolean readChoice(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("delta".equals(field) && value == JsonToken.START_OBJECT) {
+                readDelta(parser);
+            } else if ("finish_reason".equals(field) && value == JsonToken.VALUE_STRING) {
+                finishReason = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return true;
+    }
+
+    private void readDelta(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("content".equals(field) && value == JsonToken.VALUE_STRING) {
+                content = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+}
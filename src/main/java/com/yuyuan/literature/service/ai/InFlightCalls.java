@@ -0,0 +1,57 @@
+package com.yuyuan.literature.service.ai;
+
+import okhttp3.Call;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一组相关的进行中 HTTP 调用
+ * <p>
+ * 取消 Future 只会中断等待结果的线程，不会关闭已发出的 OkHttp 请求；
+ * 同一批请求（例如长文献的分段请求）登记到同一个实例，任意一段失败或会话取消时显式取消全部调用。
+ * 取消之后登记的调用立即被取消。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+public final class InFlightCalls {
+
+    private final Set<Call> calls = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /**
+     * 登记调用，已取消时立即取消该调用
+     *
+     * @param call 调用
+     * @return 传入的调用
+     */
+    public Call track(Call call) {
+        calls.add(call);
+        if (cancelled) {
+            call.cancel();
+        }
+        return call;
+    }
+
+    /**
+     * 调用结束后移除登记
+     *
+     * @param call 调用
+     */
+    public void release(Call call) {
+        calls.remove(call);
+    }
+
+    /**
+     * 取消全部进行中的调用，之后登记的调用也会被取消
+     */
+    public void cancelAll() {
+        cancelled = true;
+        calls.forEach(Call::cancel);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,151 @@
+package com.yuyuan.literature.service.ai;
+
+import com.yuyuan.literature.dto.KimiChatRequest;
+import com.yuyuan.literature.service.ExtractedText;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Kimi 聊天请求体（流式序列化）
+ * <p>
+ * 文献文本从提取文本存储中按固定大小的缓冲区读取，转义后直接写入 HTTP 请求体，
+ * 整篇文档不会在堆上以用户消息字符串和 JSON 字符串的形式再复制出多份。
+ * 文档内容追加在最后一条消息之后；请求体可重复写出，支持重试。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+public class KimiChatRequestBody extends RequestBody {
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final KimiChatRequest request;
+    private final ExtractedText document;
+
+    public KimiChatRequestBody(KimiChatRequest request, ExtractedText document) {
+        this.request = request;
+        this.document = document;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        sink.writeUtf8("{\"model\":");
+        writeJsonString(sink, request.getModel());
+        if (request.getMaxTokens() != null) {
+            sink.writeUtf8(",\"max_tokens\":").writeUtf8(String.valueOf(request.getMaxTokens()));
+        }
+        if (request.getTemperature() != null) {
+            sink.writeUtf8(",\"temperature\":").writeUtf8(String.valueOf(request.getTemperature()));
+        }
+        if (request.getStream() != null) {
+            sink.writeUtf8(",\"stream\":").writeUtf8(String.valueOf(request.getStream()));
+        }
+        if (request.getResponseFormat() != null) {
+            sink.writeUtf8(",\"response_format\":{\"type\":");
+            writeJsonString(sink, request.getResponseFormat().getType());
+            sink.writeByte('}');
+        }
+
+        sink.writeUtf8(",\"messages\":[");
+        List<KimiChatRequest.Message> messages = request.getMessages();
+        for (int i = 0; i < messages.size(); i++) {
+            KimiChatRequest.Message message = messages.get(i);
+            if (i > 0) {
+                sink.writeByte(',');
+            }
+            sink.writeUtf8("{\"role\":");
+            writeJsonString(sink, message.getRole());
+            sink.writeUtf8(",\"content\":\"");
+            writeEscaped(sink, message.getContent());
+            if (i == messages.size() - 1 && document != null) {
+                writeDocument(sink);
+            }
+            sink.writeUtf8("\"}");
+        }
+        sink.writeUtf8("]}");
+    }
+
+    /**
+     * 以固定缓冲区流式写出文档内容
+     */
+    private void writeDocument(BufferedSink sink) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        int carry = 0;
+        try (Reader reader = document.openReader()) {
+            int read;
+            while ((read = reader.read(buffer, carry, buffer.length - carry)) != -1) {
+                int end = carry + read;
+                // 高代理项留到下一轮，避免拆开代理对
+                int writable = end > 0 && Character.isHighSurrogate(buffer[end - 1]) ? end - 1 : end;
+                writeEscaped(sink, buffer, writable);
+                carry = end - writable;
+                if (carry > 0) {
+                    buffer[0] = buffer[end - 1];
+                }
+            }
+            if (carry > 0) {
+                writeEscaped(sink, buffer, carry);
+            }
+        }
+    }
+
+    private static void writeJsonString(BufferedSink sink, String value) throws IOException {
+        if (value == null) {
+            sink.writeUtf8("null");
+            return;
+        }
+        sink.writeByte('"');
+        writeEscaped(sink, value);
+        sink.writeByte('"');
+    }
+
+    private static void writeEscaped(BufferedSink sink, String value) throws IOException {
+        if (value != null) {
+            writeEscaped(sink, value.toCharArray(), value.length());
+        }
+    }
+
+    /**
+     * 按 JSON 字符串规则转义并以 UTF-8 写出
+     */
+    private static void writeEscaped(BufferedSink sink, char[] chars, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            switch (c) {
+                case '"' -> sink.writeUtf8("\\\"");
+                case '\\' -> sink.writeUtf8("\\\\");
+                case '\n' -> sink.writeUtf8("\\n");
+                case '\r' -> sink.writeUtf8("\\r");
+                case '\t' -> sink.writeUtf8("\\t");
+                case '\b' -> sink.writeUtf8("\\b");
+                case '\f' -> sink.writeUtf8("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        sink.writeUtf8("\\u00").writeByte(HEX_DIGITS[c >> 4]).writeByte(HEX_DIGITS[c & 0xF]);
+                    } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                        sink.writeUtf8CodePoint(Character.toCodePoint(c, chars[++i]));
+                    } else if (Character.isSurrogate(c)) {
+                        // 孤立代理项无法编码为合法 UTF-8
+                        sink.writeUtf8("\\ufffd");
+                    } else {
+                        sink.writeUtf8CodePoint(c);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.yuyuan.literature.service.ai;
+
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 模型选择器
+ * <p>
+ * 根据估算的输入 token 数，从配置的模型档位中选择上下文窗口足够的最小模型，
+ * 并按剩余窗口设置 max_tokens，避免请求超出上下文后白白浪费一次往返。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ModelRouter {
+
+    /**
+     * 每条消息的格式开销（角色标记等）
+     */
+    public static final int MESSAGE_OVERHEAD_TOKENS = 8;
+
+    @Value("${literature.ai.model:moonshot-v1-8k}")
+    private String defaultModel;
+
+    /**
+     * 默认模型的上下文 token 数，默认值与默认模型 moonshot-v1-8k 对应；修改 model 时需同时配置
+     */
+    @Value("${literature.ai.context-tokens:8192}")
+    private int defaultContextTokens;
+
+    /**
+     * 模型档位，格式：模型名:上下文 token 数，多个用逗号分隔；为空时只使用默认模型
+     */
+    @Value("${literature.ai.model-tiers:}")
+    private String modelTiers;
+
+    @Value("${literature.ai.min-output-tokens:1024}")
+    private int minOutputTokens;
+
+    /**
+     * 估算误差的安全余量（占上下文窗口的比例）
+     */
+    @Value("${literature.ai.context-safety-ratio:0.05}")
+    private double contextSafetyRatio;
+
+    private final List<ModelTier> tiers = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        if (StrUtil.isNotBlank(modelTiers)) {
+            for (String tier : modelTiers.split(",")) {
+                String[] parts = tier.trim().split(":");
+                if (parts.length != 2 || StrUtil.isBlank(parts[0])) {
+                    throw new IllegalStateException("模型档位配置格式错误: " + tier);
+                }
+                tiers.add(new ModelTier(parts[0].trim(), Integer.parseInt(parts[1].trim())));
+            }
+        }
+        if (tiers.isEmpty()) {
+            tiers.add(new ModelTier(defaultModel, defaultContextTokens));
+        }
+        tiers.sort(Comparator.comparingInt(ModelTier::getContextTokens));
+        log.info("模型档位: {}", tiers);
+    }
+
+    /**
+     * 为请求选择模型
+     *
+     * @param inputTokens  估算的输入 token 数
+     * @param outputTokens 期望的输出 token 数上限
+     * @return 选择结果；最大的模型也放不下时返回 null
+     */
+    public ModelPlan plan(int inputTokens, int outputTokens) {
+        for (ModelTier tier : tiers) {
+            int available = usableTokens(tier) - inputTokens;
+            if (available >= Math.min(minOutputTokens, outputTokens)) {
+                return new ModelPlan(tier.getName(), tier.getContextTokens(), inputTokens, Math.min(outputTokens, available));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 最大模型在保留最小输出空间后可容纳的输入 token 数
+     */
+    public int maxInputTokens() {
+        return usableTokens(tiers.get(tiers.size() - 1)) - minOutputTokens;
+    }
+
+    /**
+     * 模型配置摘要（用于结果缓存键，配置变化时缓存自然失效）
+     */
+    public String fingerprint() {
+        return tiers + ";min-output-tokens=" + minOutputTokens + ";context-safety-ratio=" + contextSafetyRatio;
+    }
+
+    private int usableTokens(ModelTier tier) {
+        return (int) (tier.getContextTokens() * (1 - contextSafetyRatio));
+    }
+
+    /**
+     * 模型档位
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ModelTier {
+
+        private String name;
+
+        private Integer contextTokens;
+    }
+
+    /**
+     * 模型选择结果
+     */
+    @Data
+    @AllArgsConstructor
+    public static class ModelPlan {
+
+        /**
+         * 模型名称
+         */
+        private String model;
+
+        /**
+         * 模型上下文 token 数
+         */
+        private Integer contextTokens;
+
+        /**
+         * 估算的输入 token 数
+         */
+        private Integer inputTokens;
+
+        /**
+         * 本次请求的 max_tokens
+         */
+        private Integer maxTokens;
+    }
+}
@@ -0,0 +1,338 @@
+package com.yuyuan.literature.service.ai;
+
+import cn.hutool.core.util.HexUtil;
+import com.yuyuan.literature.service.ExtractedText;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 阅读指南结果缓存
+ * <p>
+ * 两级缓存：内存中按总字符数淘汰的 LRU，以及数据目录下的 gzip 文件。
+ * 缓存键为模型配置、温度、输出上限、提示词内容和文献文本的 SHA-256，
+ * 任意一项变化（如修改提示词文件）都会自然失效，无需手动清理。
+ * 失效的旧文件不会再被读取，磁盘目录按总字节数限制容量：命中时刷新文件修改时间，
+ * 超出上限时按修改时间删除最久未使用的文件。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class ReadingGuideCache {
+
+    private static final String CACHE_SUFFIX = ".md.gz";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * 超出上限后清理到上限的该比例，避免接近上限时每次写入都扫描目录
+     */
+    private static final double DISK_PRUNE_RATIO = 0.9;
+
+    /**
+     * 超过该时长的临时文件视为写入中断的残留
+     */
+    private static final Duration STALE_TEMP_AGE = Duration.ofHours(1);
+
+    @Value("${literature.ai.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${literature.ai.cache.memory-max-chars:5000000}")
+    private long memoryMaxChars;
+
+    @Value("${literature.ai.cache.disk-path:./data/guide-cache}")
+    private String diskPath;
+
+    @Value("${literature.ai.cache.disk-max-bytes:536870912}")
+    private long diskMaxBytes;
+
+    private final LinkedHashMap<String, String> memory = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long memoryChars;
+
+    /**
+     * 磁盘缓存文件的写入和清理互斥，保证 diskBytes 与目录内容一致
+     */
+    private final Object diskLock = new Object();
+
+    private long diskBytes;
+
+    /**
+     * 统计磁盘缓存占用，超出上限（例如调小了配置）时立即清理
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (diskLock) {
+            pruneDisk();
+        }
+        log.info("阅读指南磁盘缓存已加载，占用: {} 字节，上限: {} 字节", diskBytes, diskMaxBytes);
+    }
+
+    /**
+     * 计算缓存键
+     *
+     * @param document 文献提取文本
+     * @param params   影响生成结果的其他参数（模型、温度、提示词等）
+     * @return 缓存键，缓存关闭时返回 null
+     */
+    public String buildKey(ExtractedText document, Object... params) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object param : params) {
+                update(digest, String.valueOf(param));
+                // 分隔符避免参数拼接产生歧义
+                digest.update((byte) 0);
+            }
+            try (Reader reader = document.openReader()) {
+                CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+                CharBuffer chars = CharBuffer.allocate(8192);
+                ByteBuffer bytes = ByteBuffer.allocate(8192 * 3);
+                while (reader.read(chars) != -1) {
+                    chars.flip();
+                    encoder.encode(chars, bytes, false);
+                    chars.compact();
+                    bytes.flip();
+                    digest.update(bytes);
+                    bytes.clear();
+                }
+                chars.flip();
+                encoder.encode(chars, bytes, true);
+                encoder.flush(bytes);
+                bytes.flip();
+                digest.update(bytes);
+            }
+            return HexUtil.encodeHexStr(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("计算阅读指南缓存键失败，跳过缓存", e);
+            return null;
+        }
+    }
+
+    /**
+     * 查询缓存（内存未命中时读取磁盘并回填内存）
+     *
+     * @param key 缓存键
+     * @return 阅读指南，未命中时返回 null
+     */
+    public String get(String key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (memory) {
+            String cached = memory.get(key);
+            if (cached != null) {
+                log.info("阅读指南缓存命中（内存），键: {}", key);
+                return cached;
+            }
+        }
+
+        Path file = resolveFile(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+            String cached = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            putMemory(key, cached);
+            touch(file);
+            log.info("阅读指南缓存命中（磁盘），键: {}", key);
+            return cached;
+        } catch (IOException e) {
+            log.warn("读取阅读指南缓存失败: {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param key          缓存键
+     * @param readingGuide 阅读指南
+     */
+    public void put(String key, String readingGuide) {
+        if (key == null || readingGuide == null || readingGuide.isBlank()) {
+            return;
+        }
+        putMemory(key, readingGuide);
+
+        Path file = resolveFile(key);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tempFile = Files.createTempFile(file.getParent(), key, TEMP_SUFFIX);
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(tempFile))) {
+                outputStream.write(readingGuide.getBytes(StandardCharsets.UTF_8));
+            }
+            long size = Files.size(tempFile);
+            synchronized (diskLock) {
+                long previousSize = Files.exists(file) ? Files.size(file) : 0;
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                diskBytes += size - previousSize;
+                if (diskBytes > diskMaxBytes) {
+                    pruneDisk();
+                }
+            }
+            log.debug("阅读指南缓存写入成功，键: {}", key);
+        } catch (IOException e) {
+            // 磁盘缓存写入失败不影响结果返回
+            log.warn("阅读指南缓存写入失败: {}", file, e);
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // 忽略临时文件清理失败
+                }
+            }
+        }
+    }
+
+    private void putMemory(String key, String readingGuide) {
+        if (readingGuide.length() > memoryMaxChars) {
+            return;
+        }
+        synchronized (memory) {
+            String previous = memory.put(key, readingGuide);
+            if (previous != null) {
+                memoryChars -= previous.length();
+            }
+            memoryChars += readingGuide.length();
+            // 按总字符数淘汰最久未访问的条目
+            Iterator<Map.Entry<String, String>> iterator = memory.entrySet().iterator();
+            while (memoryChars > memoryMaxChars && iterator.hasNext()) {
+                Map.Entry<String, String> eldest = iterator.next();
+                memoryChars -= eldest.getValue().length();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 重新统计磁盘缓存占用，超出上限时按修改时间从旧到新删除缓存文件，同时清理中断写入残留的临时文件
+     * <p>
+     * 调用方需持有 diskLock。
+     */
+    private void pruneDisk() {
+        Path root = Paths.get(diskPath);
+        if (!Files.isDirectory(root)) {
+            diskBytes = 0;
+            return;
+        }
+        List<CacheFile> files = new ArrayList<>();
+        long total = 0;
+        Instant staleBefore = Instant.now().minus(STALE_TEMP_AGE);
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                String name = path.getFileName().toString();
+                boolean cacheFile = name.endsWith(CACHE_SUFFIX);
+                if (!cacheFile && !name.endsWith(TEMP_SUFFIX)) {
+                    continue;
+                }
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    // 临时文件可能已被并发写入移走
+                    continue;
+                }
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                if (cacheFile) {
+                    files.add(new CacheFile(path, attributes.size(), attributes.lastModifiedTime()));
+                    total += attributes.size();
+                } else if (attributes.lastModifiedTime().toInstant().isBefore(staleBefore)) {
+                    deleteQuietly(path);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("统计阅读指南磁盘缓存失败: {}", root, e);
+            return;
+        }
+
+        if (total > diskMaxBytes) {
+            long target = (long) (diskMaxBytes * DISK_PRUNE_RATIO);
+            int removed = 0;
+            files.sort(Comparator.comparing(CacheFile::lastModified));
+            for (CacheFile file : files) {
+                if (total <= target) {
+                    break;
+                }
+                if (deleteQuietly(file.path())) {
+                    total -= file.size();
+                    removed++;
+                }
+            }
+            log.info("阅读指南磁盘缓存超出上限，已删除 {} 个最久未使用的文件，当前占用: {} 字节", removed, total);
+        }
+        diskBytes = total;
+    }
+
+    /**
+     * 刷新文件修改时间，作为磁盘缓存 LRU 淘汰的访问时间
+     */
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.debug("刷新阅读指南缓存访问时间失败: {}", file, e);
+        }
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            log.warn("删除阅读指南缓存文件失败: {}", file, e);
+            return false;
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path resolveFile(String key) {
+        return Paths.get(diskPath).resolve(key.substring(0, 2)).resolve(key + CACHE_SUFFIX);
+    }
+
+    private record CacheFile(Path path, long size, FileTime lastModified) {
+    }
+}
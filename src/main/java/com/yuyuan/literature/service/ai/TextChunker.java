@@ -0,0 +1,179 @@
+package com.yuyuan.literature.service.ai;
+
+import com.yuyuan.literature.service.ExtractedText;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 长文本分段器
+ * <p>
+ * 按行流式读取提取文本，以 {@link TokenEstimator} 估算长度，在 token 预算内尽量沿章节标题和段落边界切分：
+ * 分段已过半时遇到章节标题即切分，接近预算时遇到空行即切分，超出预算的单行按句末标点切开。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Component
+public class TextChunker {
+
+    /**
+     * 章节标题：编号标题、中文序号标题和常见的英文/中文章节名
+     */
+    private static final Pattern HEADING = Pattern.compile(
+            "^\\s*(?:\\d+(?:\\.\\d+)*\\.?\\s+\\S.{0,80}"
+                    + "|[一二三四五六七八九十]+[、.．]\\s*\\S.{0,40}"
+                    + "|第[一二三四五六七八九十百0-9]+[章节部分].{0,40}"
+                    + "|(?i:abstract|introduction|background|related\\s+work|methods?|methodology|experiments?"
+                    + "|results?|discussion|conclusions?|references|acknowledge?ments?|appendix)\\b.{0,60}"
+                    + "|摘\\s*要|引\\s*言|相关工作|结\\s*论|参考文献|致\\s*谢|附\\s*录)\\s*$");
+
+    /**
+     * 超长单行回退查找句末标点的范围（占预算的比例）
+     */
+    private static final double SENTENCE_LOOKBACK_RATIO = 0.2;
+
+    @Value("${literature.ai.chunking.chunk-tokens:24000}")
+    private int chunkTokens;
+
+    /**
+     * 默认每段的 token 预算（影响分段结果，用于结果缓存键）
+     */
+    public int getChunkTokens() {
+        return chunkTokens;
+    }
+
+    /**
+     * 按默认预算切分
+     *
+     * @param document 文献提取文本
+     * @return 分段文本
+     */
+    public List<String> split(ExtractedText document) throws IOException {
+        return split(document, chunkTokens);
+    }
+
+    /**
+     * 按指定预算切分
+     *
+     * @param document    文献提取文本
+     * @param tokenBudget 每段的 token 预算
+     * @return 分段文本
+     */
+    public List<String> split(ExtractedText document, int tokenBudget) throws IOException {
+        ChunkBuilder builder = new ChunkBuilder(tokenBudget);
+        try (Reader reader = document.openReader();
+             BufferedReader bufferedReader = new BufferedReader(reader)) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                builder.addLine(line);
+            }
+        }
+        return builder.finish();
+    }
+
+    private static boolean isSentenceEnd(char c) {
+        return c == '。' || c == '！' || c == '？' || c == '；' || c == '.' || c == '!' || c == '?' || c == ';';
+    }
+
+    /**
+     * 分段累积器
+     */
+    private static final class ChunkBuilder {
+
+        private final int budget;
+        private final List<String> chunks = new ArrayList<>();
+        private final StringBuilder current = new StringBuilder();
+        private long currentTokens;
+
+        ChunkBuilder(int tokenBudget) {
+            this.budget = Math.max(1, tokenBudget);
+        }
+
+        void addLine(String line) {
+            boolean blank = line.isBlank();
+            if (blank) {
+                // 接近预算时优先在段落边界切分
+                if (currentTokens >= budget * 9L / 10) {
+                    flush();
+                } else if (current.length() > 0) {
+                    current.append('\n');
+                }
+                return;
+            }
+
+            int tokens = TokenEstimator.estimate(line);
+            if (tokens > budget) {
+                flush();
+                splitLongLine(line);
+                return;
+            }
+            if (currentTokens + tokens > budget
+                    || (currentTokens >= budget / 2 && line.length() <= 120 && HEADING.matcher(line).matches())) {
+                flush();
+            }
+            current.append(line).append('\n');
+            currentTokens += tokens;
+        }
+
+        /**
+         * 超出预算的单行：在预算末尾附近回退到句末标点切开
+         */
+        private void splitLongLine(String line) {
+            TokenEstimator estimator = new TokenEstimator();
+            int start = 0;
+            while (start < line.length()) {
+                estimator.reset();
+                int end = start;
+                while (end < line.length()) {
+                    estimator.accept(line.charAt(end));
+                    if (estimator.estimate() > budget) {
+                        break;
+                    }
+                    end++;
+                }
+                end = Math.max(end, start + 1);
+                if (end < line.length()) {
+                    int lookbackLimit = Math.max(start + 1, end - (int) ((end - start) * SENTENCE_LOOKBACK_RATIO));
+                    for (int i = end - 1; i >= lookbackLimit; i--) {
+                        if (isSentenceEnd(line.charAt(i))) {
+                            end = i + 1;
+                            break;
+                        }
+                    }
+                    // 避免拆开代理对
+                    if (Character.isHighSurrogate(line.charAt(end - 1)) && end - 1 > start) {
+                        end--;
+                    }
+                }
+                String piece = line.substring(start, end);
+                start = end;
+                if (start < line.length()) {
+                    chunks.add(piece);
+                } else {
+                    current.append(piece).append('\n');
+                    currentTokens = TokenEstimator.estimate(piece);
+                }
+            }
+        }
+
+        private void flush() {
+            if (!current.toString().isBlank()) {
+                chunks.add(current.toString().strip());
+            }
+            current.setLength(0);
+            currentTokens = 0;
+        }
+
+        List<String> finish() {
+            flush();
+            return chunks;
+        }
+    }
+}
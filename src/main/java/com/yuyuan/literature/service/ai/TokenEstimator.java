@@ -0,0 +1,155 @@
+package com.yuyuan.literature.service.ai;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 本地 token 估算器
+ * <p>
+ * 按字符类别近似估算，不依赖分词词表，逐字符计数、不产生中间对象，可流式累加：
+ * <ul>
+ *     <li>中日韩文字及全角符号：约 0.75 token/字（Kimi 约 1.5~2 个汉字 1 token，这里取偏保守的值）</li>
+ *     <li>连续的英文字母和数字：按单词计，每 4 个字符约 1 token，至少 1 token</li>
+ *     <li>ASCII 标点：约 0.5 token，空白不计</li>
+ *     <li>其他字符（带音标拉丁字母、希腊字母、数学符号等）：约 0.5 token，代理对（emoji 等）约 2 token</li>
+ * </ul>
+ * 估算值用于选择模型、设置 max_tokens 和决定是否分段，宁可略高也不要偏低。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+public final class TokenEstimator {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 以 1/4 token 为单位累计，避免浮点运算
+     */
+    private long quarterUnits;
+
+    /**
+     * 当前英文单词（字母数字串）的长度
+     */
+    private int wordLength;
+
+    /**
+     * 累加单个字符
+     */
+    public void accept(char c) {
+        if (c < 0x80 && Character.isLetterOrDigit(c)) {
+            wordLength++;
+            return;
+        }
+        endWord();
+        if (c < 0x80) {
+            if (c > ' ') {
+                quarterUnits += 2;
+            }
+        } else if (Character.isSurrogate(c)) {
+            quarterUnits += 4;
+        } else if (c >= 0x2E80 && c <= 0xFFEF) {
+            quarterUnits += 3;
+        } else {
+            quarterUnits += 2;
+        }
+    }
+
+    /**
+     * 累加字符数组片段
+     */
+    public void accept(char[] chars, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            accept(chars[i]);
+        }
+    }
+
+    /**
+     * 累加字符序列
+     */
+    public void accept(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            accept(text.charAt(i));
+        }
+    }
+
+    /**
+     * 当前估算的 token 数（不影响后续累加）
+     */
+    public int estimate() {
+        long units = quarterUnits + wordUnits(wordLength);
+        return (int) Math.min(Integer.MAX_VALUE, (units + 3) / 4);
+    }
+
+    /**
+     * 重置计数
+     */
+    public void reset() {
+        quarterUnits = 0;
+        wordLength = 0;
+    }
+
+    private void endWord() {
+        if (wordLength > 0) {
+            quarterUnits += wordUnits(wordLength);
+            wordLength = 0;
+        }
+    }
+
+    private static long wordUnits(int length) {
+        return length == 0 ? 0 : ((length + 3) / 4) * 4L;
+    }
+
+    /**
+     * 估算文本的 token 数
+     */
+    public static int estimate(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        TokenEstimator estimator = new TokenEstimator();
+        estimator.accept(text);
+        return estimator.estimate();
+    }
+
+    /**
+     * 流式估算 Reader 中全部文本的 token 数，调用方负责关闭 Reader
+     */
+    public static int estimate(Reader reader) throws IOException {
+        TokenEstimator estimator = new TokenEstimator();
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            estimator.accept(buffer, 0, read);
+        }
+        return estimator.estimate();
+    }
+
+    /**
+     * 从 Reader 读取不超过指定 token 数的前缀，调用方负责关闭 Reader
+     *
+     * @param reader    文本读取流
+     * @param maxTokens token 上限
+     * @return 截取的文本前缀
+     */
+    public static String truncate(Reader reader, int maxTokens) throws IOException {
+        TokenEstimator estimator = new TokenEstimator();
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                estimator.accept(buffer[i]);
+                if (estimator.estimate() > maxTokens) {
+                    // 避免留下孤立的高代理项
+                    int end = builder.length();
+                    if (end > 0 && Character.isHighSurrogate(builder.charAt(end - 1))) {
+                        builder.setLength(end - 1);
+                    }
+                    return builder.toString();
+                }
+                builder.append(buffer[i]);
+            }
+        }
+        return builder.toString();
+    }
+}
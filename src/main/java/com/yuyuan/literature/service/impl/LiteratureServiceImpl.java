@@ -1,37 +1,61 @@
 package com.yuyuan.literature.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.yuyuan.literature.common.exception.BusinessException;
+import com.yuyuan.literature.common.request.PageCursor;
 import com.yuyuan.literature.common.request.PageResult;
 import com.yuyuan.literature.common.result.ResultCode;
+import com.yuyuan.literature.common.utils.FileTransferUtils;
 import com.yuyuan.literature.dto.BatchLiteratureImportRequest;
 import com.yuyuan.literature.dto.LiteratureQueryRequest;
 import com.yuyuan.literature.dto.LiteratureVO;
+import com.yuyuan.literature.dto.StoredFile;
 import com.yuyuan.literature.entity.Literature;
+import com.yuyuan.literature.entity.LiteratureContent;
+import com.yuyuan.literature.mapper.LiteratureContentMapper;
 import com.yuyuan.literature.mapper.LiteratureMapper;
+import com.yuyuan.literature.service.ExtractedText;
+import com.yuyuan.literature.service.ExtractedTextStore;
+import com.yuyuan.literature.service.FileETagResolver;
 import com.yuyuan.literature.service.FileProcessingService;
 import com.yuyuan.literature.service.LiteratureAiService;
 import com.yuyuan.literature.service.LiteratureService;
+import com.yuyuan.literature.service.LiteratureTagService;
+import com.yuyuan.literature.service.search.LiteratureSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import java.io.OutputStream;
 import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -46,47 +70,165 @@ import java.util.stream.Collectors;
 public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literature> implements LiteratureService {
 
     private final FileProcessingService fileProcessingService;
+    private final ExtractedTextStore extractedTextStore;
+    private final FileETagResolver fileETagResolver;
+    private final LiteratureSearchIndex literatureSearchIndex;
+    private final LiteratureTagService literatureTagService;
+    private final LiteratureContentMapper literatureContentMapper;
     private final LiteratureAiService literatureAiService;
     
+    /**
+     * 阅读指南摘要长度
+     */
+    private static final int READING_GUIDE_SUMMARY_LENGTH = 200;
+
+    /**
+     * 文件锁分段数
+     */
+    private static final int FILE_LOCK_STRIPES = 64;
+
     // 虚拟线程池，用于并发处理文件
     private final Executor virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
+    /**
+     * 按文件路径分段的锁：共享文件的引用切换与删除前的引用统计互斥
+     */
+    private final Object[] fileLocks = createFileLocks();
+
+    /**
+     * 自身的代理：内部调用和传给分类任务的回调经过代理，事务注解才会生效
+     */
+    @Lazy
+    @Autowired
+    private LiteratureService self;
+
     @Override
-    public Long createLiterature(MultipartFile file, String filePath, Integer contentLength) {
+    public Long createLiterature(MultipartFile file, String filePath, String contentHash, Integer contentLength) {
         Literature literature = new Literature();
         literature.setOriginalName(file.getOriginalFilename());
         literature.setFilePath(filePath);
         literature.setFileSize(file.getSize());
         literature.setFileType(FileUtil.extName(file.getOriginalFilename()).toLowerCase());
         literature.setContentLength(contentLength);
+        literature.setContentHash(contentHash);
         literature.setStatus(Literature.Status.PROCESSING.getCode());
 
         this.save(literature);
+        literatureSearchIndex.index(literature);
         log.info("创建文献记录成功，ID: {}, 文件名: {}", literature.getId(), literature.getOriginalName());
 
         return literature.getId();
     }
 
     @Override
+    public Literature findReusableLiterature(String contentHash) {
+        if (StrUtil.isBlank(contentHash)) {
+            return null;
+        }
+
+        // 优先复用已生成阅读指南的记录（摘要非空即有阅读指南），否则至少复用已存储的文件
+        Literature reusable = baseMapper.selectReusableByContentHash(contentHash);
+        if (reusable == null) {
+            return null;
+        }
+        if (StrUtil.isNotBlank(reusable.getReadingGuideSummary())) {
+            LiteratureContent content = literatureContentMapper.selectById(reusable.getId());
+            reusable.setReadingGuide(content != null ? content.getReadingGuide() : null);
+        }
+        return reusable;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Long createFromDuplicate(MultipartFile file, String filePath, String contentHash, Literature source, String apiKey) {
+        boolean classified = CollUtil.isNotEmpty(source.getTags());
+
+        Literature literature = new Literature();
+        literature.setOriginalName(file.getOriginalFilename());
+        literature.setFilePath(filePath);
+        literature.setFileSize(file.getSize());
+        literature.setFileType(FileUtil.extName(file.getOriginalFilename()).toLowerCase());
+        literature.setContentLength(source.getContentLength());
+        literature.setContentHash(contentHash);
+        literature.setReadingGuide(source.getReadingGuide());
+        literature.setReadingGuideSummary(buildReadingGuideSummary(source.getReadingGuide()));
+        literature.setTags(LiteratureTagService.normalizeTags(source.getTags()));
+        literature.setDescription(source.getDescription());
+        literature.setStatus(classified
+                ? Literature.Status.COMPLETED.getCode()
+                : Literature.Status.PROCESSING.getCode());
+
+        this.save(literature);
+        if (StrUtil.isNotBlank(source.getReadingGuide())) {
+            literatureContentMapper.upsertReadingGuide(literature.getId(), source.getReadingGuide());
+        }
+        literatureTagService.replaceTags(literature.getId(), literature.getTags());
+        indexAfterCommit(literature.getId());
+        log.info("复用重复文献创建记录成功，ID: {}, 来源ID: {}, 文件名: {}",
+                literature.getId(), source.getId(), literature.getOriginalName());
+
+        // 被复用的文献尚未完成分类时，提交后补充生成分类（分类任务更新的是本事务新增的记录）
+        if (!classified) {
+            afterCommit(() -> literatureAiService.generateClassificationWithVirtualThread(
+                    apiKey, source.getReadingGuide(), literature.getId(), self));
+        }
+
+        return literature.getId();
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
     public void updateReadingGuide(Long id, String readingGuide) {
+        literatureContentMapper.upsertReadingGuide(id, readingGuide);
+
         Literature literature = new Literature();
         literature.setId(id);
-        literature.setReadingGuide(readingGuide);
+        literature.setReadingGuideSummary(buildReadingGuideSummary(readingGuide));
 
         this.updateById(literature);
+        indexAfterCommit(id);
         log.info("更新文献阅读指南成功，ID: {}", id);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void updateClassification(Long id, List<String> tags, String description) {
+        // 文献的 tags 字段与关联表保存相同的规范化结果
+        List<String> normalizedTags = LiteratureTagService.normalizeTags(tags);
+
         Literature literature = new Literature();
         literature.setId(id);
-        literature.setTags(tags);
+        literature.setTags(normalizedTags);
         literature.setDescription(description);
         literature.setStatus(Literature.Status.COMPLETED.getCode());
 
         this.updateById(literature);
-        log.info("更新文献分类成功，ID: {}, 标签数量: {}", id, tags.size());
+        literatureTagService.replaceTags(id, normalizedTags);
+        indexAfterCommit(id);
+        log.info("更新文献分类成功，ID: {}, 标签数量: {}", id, normalizedTags.size());
+    }
+
+    /**
+     * 事务提交后按数据库中的最新内容更新全文索引，回滚时索引保持不变
+     */
+    private void indexAfterCommit(Long id) {
+        afterCommit(() -> literatureSearchIndex.index(baseMapper.selectLiteratureDetail(id)));
+    }
+
+    /**
+     * 在当前事务提交后执行，没有事务时立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     @Override
@@ -101,23 +243,149 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
 
     @Override
     public PageResult<LiteratureVO> pageLiteratures(LiteratureQueryRequest request) {
+        if (StrUtil.isNotBlank(request.getKeyword()) && isRelevanceSort(request)) {
+            return pageByRelevance(request);
+        }
+
+        // 关键词先查全文索引
+        LiteratureSearchIndex.SearchHits hits = searchKeyword(request.getKeyword());
+        List<Long> matchedIds = hits == null ? null : hits.ids();
+        if (matchedIds != null && matchedIds.isEmpty()) {
+            return PageResult.of(List.of(), 0L, request.getPageNum(), request.getPageSize());
+        }
+
         // 创建分页对象
         Page<Literature> page = new Page<>(request.getPageNum(), request.getPageSize());
 
         // 执行分页查询
-        IPage<Literature> pageResult = baseMapper.selectLiteraturePage(page, request);
+        IPage<Literature> pageResult = baseMapper.selectLiteraturePage(page, request, matchedIds);
 
         // 转换为 VO 对象
         List<LiteratureVO> voList = pageResult.getRecords().stream()
                 .map(this::convertToVO)
                 .collect(Collectors.toList());
 
-        return PageResult.of(voList, pageResult.getTotal(), request.getPageNum(), request.getPageSize());
+        PageResult<LiteratureVO> result =
+                PageResult.of(voList, pageResult.getTotal(), request.getPageNum(), request.getPageSize());
+        markTruncated(result, hits);
+        return result;
+    }
+
+    /**
+     * 关键词搜索按相关度分页
+     * <p>
+     * 没有其他过滤条件时分页和计数都在全文索引中完成，数据库只按 ID 读取当前页；
+     * 有过滤条件时先取相关度最高的 max-results 条命中，在数据库中过滤后按相关度顺序分页。
+     */
+    private PageResult<LiteratureVO> pageByRelevance(LiteratureQueryRequest request) {
+        int pageNum = request.getPageNum();
+        int pageSize = request.getPageSize();
+        String keyword = request.getKeyword().trim();
+
+        List<Long> pageIds;
+        long total;
+        LiteratureSearchIndex.SearchHits hits = null;
+        if (hasFilters(request)) {
+            hits = literatureSearchIndex.search(keyword);
+            Set<Long> filtered = hits.ids().isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(baseMapper.selectMatchedIds(request, hits.ids()));
+            List<Long> rankedIds = hits.ids().stream().filter(filtered::contains).toList();
+            total = rankedIds.size();
+            pageIds = rankedIds.subList(Math.min(request.getOffset(), rankedIds.size()),
+                    Math.min(request.getOffset() + pageSize, rankedIds.size()));
+        } else {
+            LiteratureSearchIndex.SearchHits page = literatureSearchIndex.search(keyword, request.getOffset(), pageSize);
+            total = page.totalHits();
+            pageIds = page.ids();
+        }
+
+        List<LiteratureVO> voList = List.of();
+        if (!pageIds.isEmpty()) {
+            // 按全文索引返回的顺序排列
+            Map<Long, Literature> byId = baseMapper.selectLiteratureByIds(pageIds).stream()
+                    .collect(Collectors.toMap(Literature::getId, Function.identity()));
+            voList = pageIds.stream()
+                    .map(byId::get)
+                    .filter(Objects::nonNull)
+                    .map(this::convertToVO)
+                    .collect(Collectors.toList());
+        }
+
+        PageResult<LiteratureVO> result = PageResult.of(voList, total, pageNum, pageSize);
+        markTruncated(result, hits);
+        return result;
+    }
+
+    private static boolean isRelevanceSort(LiteratureQueryRequest request) {
+        return StrUtil.isBlank(request.getSortField()) || "relevance".equals(request.getSortField());
+    }
+
+    /**
+     * 是否有全文索引之外的过滤条件
+     */
+    private static boolean hasFilters(LiteratureQueryRequest request) {
+        return CollUtil.isNotEmpty(request.getTags())
+                || StrUtil.isNotBlank(request.getFileType())
+                || request.getStatus() != null
+                || StrUtil.isNotBlank(request.getStartDate())
+                || StrUtil.isNotBlank(request.getEndDate());
+    }
+
+    /**
+     * 命中数超过检索上限时标记结果被截断
+     */
+    private static void markTruncated(PageResult<?> result, LiteratureSearchIndex.SearchHits hits) {
+        if (hits != null && hits.totalHits() > hits.ids().size()) {
+            log.warn("关键词命中数 {} 超过检索上限 {}，结果已截断", hits.totalHits(), hits.ids().size());
+            result.setTruncated(true);
+        }
+    }
+
+    @Override
+    public PageResult<LiteratureVO> pageLiteraturesByCursor(LiteratureQueryRequest request) {
+        boolean asc = request.isAsc();
+        PageCursor cursor = null;
+        if (StrUtil.isNotBlank(request.getCursor())) {
+            cursor = PageCursor.decode(request.getCursor());
+            if (cursor.isAsc() != asc) {
+                throw new BusinessException(ResultCode.BAD_REQUEST, "游标与排序方向不一致");
+            }
+        }
+
+        int pageSize = request.getPageSize();
+        LiteratureSearchIndex.SearchHits hits = searchKeyword(request.getKeyword());
+        List<Long> matchedIds = hits == null ? null : hits.ids();
+        if (matchedIds != null && matchedIds.isEmpty()) {
+            return PageResult.ofCursor(List.of(), 0L, pageSize, null);
+        }
+
+        // 多查一条用于判断是否还有下一页
+        List<Literature> records = baseMapper.selectLiteratureByCursor(request, matchedIds, cursor, asc, pageSize + 1);
+
+        String nextCursor = null;
+        if (records.size() > pageSize) {
+            records = records.subList(0, pageSize);
+            Literature last = records.get(pageSize - 1);
+            nextCursor = new PageCursor(last.getCreateTime(), last.getId(), asc).encode();
+        }
+
+        Long total = Boolean.FALSE.equals(request.getSearchCount())
+                ? null
+                : baseMapper.countLiterature(request, matchedIds);
+
+        List<LiteratureVO> voList = records.stream()
+                .map(this::convertToVO)
+                .collect(Collectors.toList());
+
+        PageResult<LiteratureVO> result = PageResult.ofCursor(voList, total, pageSize, nextCursor);
+        markTruncated(result, hits);
+        return result;
     }
 
     @Override
     public LiteratureVO getLiteratureDetail(Long id) {
-        Literature literature = this.getById(id);
+        Literature literature = baseMapper.selectLiteratureDetail(id);
         if (literature == null) {
             throw new BusinessException(ResultCode.DATA_NOT_EXIST, "文献不存在");
         }
@@ -142,17 +410,42 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
         vo.setCreateTime(literature.getCreateTime());
         vo.setUpdateTime(literature.getUpdateTime());
 
-        // 阅读指南摘要（截取前200个字符）
-        if (StrUtil.isNotBlank(literature.getReadingGuide())) {
-            String summary = literature.getReadingGuide().length() > 200
-                    ? literature.getReadingGuide().substring(0, 200) + "..."
-                    : literature.getReadingGuide();
-            vo.setReadingGuideSummary(summary);
-        }
+        // 阅读指南摘要（写入阅读指南时预先生成）
+        vo.setReadingGuideSummary(literature.getReadingGuideSummary());
 
         return vo;
     }
 
+    /**
+     * 全文检索关键词（取相关度最高的 max-results 条命中，在数据库中继续过滤和排序）
+     *
+     * @return 按相关度排列的命中文献ID和总命中数；无关键词时返回 null
+     */
+    private LiteratureSearchIndex.SearchHits searchKeyword(String keyword) {
+        if (StrUtil.isBlank(keyword)) {
+            return null;
+        }
+        return literatureSearchIndex.search(keyword.trim());
+    }
+
+    /**
+     * 生成阅读指南摘要（截取前200个字符）
+     */
+    private static String buildReadingGuideSummary(String readingGuide) {
+        if (StrUtil.isBlank(readingGuide)) {
+            return null;
+        }
+        if (readingGuide.length() <= READING_GUIDE_SUMMARY_LENGTH) {
+            return readingGuide;
+        }
+        int end = READING_GUIDE_SUMMARY_LENGTH;
+        // 不截断代理对
+        if (Character.isHighSurrogate(readingGuide.charAt(end - 1))) {
+            end--;
+        }
+        return readingGuide.substring(0, end) + "...";
+    }
+
     /**
      * 转换为详情 VO（包含完整信息）
      */
@@ -164,7 +457,7 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
     }
 
     @Override
-    public void downloadLiteratureFile(Long id, HttpServletResponse response) {
+    public void downloadLiteratureFile(Long id, HttpServletRequest request, HttpServletResponse response) {
         log.info("开始下载文献文件，ID: {}", id);
 
         // 查询文献信息
@@ -201,18 +494,20 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
             String encodedFileName = URLEncoder.encode(fileName, StandardCharsets.UTF_8)
                     .replaceAll("\\+", "%20");
 
+            // 文件未变化时返回 304
+            if (checkNotModified(file, request, response)) {
+                log.info("文献文件未修改，返回 304，ID: {}", id);
+                return;
+            }
+
             // 设置响应头
             response.setContentType("application/octet-stream");
             response.setCharacterEncoding("UTF-8");
             response.setHeader("Content-Disposition",
                     "attachment; filename*=UTF-8''" + encodedFileName);
-            response.setHeader("Content-Length", String.valueOf(file.length()));
 
-            // 下载文件
-            try (OutputStream os = response.getOutputStream()) {
-                FileUtil.writeToStream(file, os);
-                os.flush();
-            }
+            // 下载文件（零拷贝传输）
+            FileTransferUtils.transfer(request, response, file);
 
             log.info("文献文件下载成功，ID: {}, 文件名: {}, 文件大小: {} bytes",
                     id, fileName, file.length());
@@ -223,7 +518,7 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
     }
 
     @Override
-    public void previewLiteratureFile(Long id, HttpServletResponse response) {
+    public void previewLiteratureFile(Long id, HttpServletRequest request, HttpServletResponse response) {
         log.info("开始预览文献文件，ID: {}", id);
 
         // 查询文献信息
@@ -259,6 +554,12 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
             String fileName = literature.getOriginalName();
             String fileExtension = literature.getFileType().toLowerCase();
             
+            // 文件未变化时返回 304，浏览器直接使用缓存
+            if (checkNotModified(file, request, response)) {
+                log.info("文献文件未修改，返回 304，ID: {}", id);
+                return;
+            }
+
             // 根据文件类型设置不同的Content-Type
             String contentType = getContentTypeByExtension(fileExtension);
             
@@ -266,16 +567,6 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
             response.setContentType(contentType);
             response.setCharacterEncoding("UTF-8");
             
-            // 防止浏览器缓存，确保显示最新的PDF内容（包括标注高亮）
-            response.setHeader("Cache-Control", "no-cache, no-store, must-revalidate");
-            response.setHeader("Pragma", "no-cache");
-            response.setHeader("Expires", "0");
-            
-            // 添加文件最后修改时间作为ETag，帮助浏览器识别文件变化
-            long lastModified = file.lastModified();
-            response.setHeader("Last-Modified", new java.util.Date(lastModified).toString());
-            response.setHeader("ETag", "\"" + lastModified + "\"");
-            
             // 对于PDF文件，设置为inline显示，其他文件类型也可以尝试预览
             if ("pdf".equals(fileExtension)) {
                 response.setHeader("Content-Disposition", "inline; filename*=UTF-8''" + 
@@ -285,14 +576,9 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
                 response.setHeader("Content-Disposition", "inline; filename*=UTF-8''" + 
                     URLEncoder.encode(fileName, StandardCharsets.UTF_8).replaceAll("\\+", "%20"));
             }
-            
-            response.setHeader("Content-Length", String.valueOf(file.length()));
 
-            // 输出文件内容
-            try (OutputStream os = response.getOutputStream()) {
-                FileUtil.writeToStream(file, os);
-                os.flush();
-            }
+            // 输出文件内容（支持 Range 请求，零拷贝传输）
+            FileTransferUtils.transferRanges(request, response, file);
 
             log.info("文献文件预览成功，ID: {}, 文件名: {}, 文件类型: {}, 文件大小: {} bytes",
                     id, fileName, fileExtension, file.length());
@@ -302,6 +588,21 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
         }
     }
 
+    /**
+     * 条件请求校验：设置强 ETag 和 Last-Modified，内容未变化时返回 304
+     * <p>
+     * 存储文件会被本地 PDF 阅读器就地修改（标注、高亮），因此使用 no-cache 要求浏览器每次重新校验，
+     * 而不是 immutable 长缓存；文件未变化时校验只返回 304，不再重复传输整个文件。
+     *
+     * @return 是否已返回 304（或 412）
+     */
+    private boolean checkNotModified(java.io.File file, HttpServletRequest request, HttpServletResponse response)
+            throws java.io.IOException {
+        response.setHeader("Cache-Control", "no-cache");
+        String etag = fileETagResolver.resolve(file);
+        return new ServletWebRequest(request, response).checkNotModified(etag, file.lastModified());
+    }
+
     @Override
     public String getLiteratureLocalPath(Long id) {
         log.info("获取文献文件本地路径，ID: {}", id);
@@ -388,28 +689,50 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
                                 "{\"index\": " + fileIndex + ", \"filename\": \"" + file.getOriginalFilename() + "\", \"message\": \"开始处理文件\"}");
                         
                         // 保存文件
-                        String filePath = fileProcessingService.saveFile(file);
+                        StoredFile storedFile = fileProcessingService.saveFile(file);
+                        String filePath = storedFile.getFilePath();
+                        
+                        // 相同内容的文献已有阅读指南时，复用阅读指南；新记录提交后再改为引用已存储的文件
+                        Literature duplicate = this.findReusableLiterature(storedFile.getContentHash());
+                        if (duplicate != null) {
+                            if (StrUtil.isNotBlank(duplicate.getReadingGuide())) {
+                                Long literatureId = self.createFromDuplicate(
+                                        file, filePath, storedFile.getContentHash(), duplicate, request.getApiKey());
+                                this.shareStoredFile(literatureId, filePath, duplicate.getFilePath());
+                                
+                                int completed = completedCount.incrementAndGet();
+                                sendSseEvent(sseEmitter, "file_complete", 
+                                        "{\"index\": " + fileIndex + ", \"literatureId\": " + literatureId + ", \"completed\": " + completed + ", \"total\": " + totalCount.get() + ", \"message\": \"检测到相同文献，已复用阅读指南\"}");
+                                
+                                if (completed == totalCount.get()) {
+                                    sendSseEvent(sseEmitter, "batch_complete", 
+                                            "{\"message\": \"批量处理完成\", \"total\": " + totalCount.get() + ", \"errors\": " + errorCount.get() + "}");
+                                    sseEmitter.complete();
+                                }
+                                return;
+                            }
+                        }
                         
-                        // 解析文件内容
-                        String fileContent = fileProcessingService.extractFileContent(filePath);
+                        // 获取文件内容（优先读取已存储的提取文本）
+                        ExtractedText document = extractedTextStore.getOrExtract(filePath);
                         
                         // 创建文献记录
-                        Long literatureId = this.createLiterature(file, filePath, fileContent.length());
+                        Long literatureId = this.createLiterature(file, filePath, storedFile.getContentHash(), document.length());
                         
                         // 发送文件保存成功事件
                         sendSseEvent(sseEmitter, "file_saved", 
                                 "{\"index\": " + fileIndex + ", \"literatureId\": " + literatureId + ", \"message\": \"文件保存成功，开始生成阅读指南\"}");
                         
                         // 生成阅读指南（非流式）
-                        String readingGuide = literatureAiService.generateReadingGuide(request.getApiKey(), fileContent);
+                        String readingGuide = literatureAiService.generateReadingGuide(request.getApiKey(), document);
                         
                         // 更新阅读指南
                         if (StrUtil.isNotBlank(readingGuide)) {
-                            this.updateReadingGuide(literatureId, readingGuide);
+                            self.updateReadingGuide(literatureId, readingGuide);
                             
                             // 异步生成分类
                             literatureAiService.generateClassificationWithVirtualThread(
-                                    request.getApiKey(), readingGuide, literatureId, this);
+                                    request.getApiKey(), readingGuide, literatureId, self);
                         } else {
                             this.updateStatus(literatureId, Literature.Status.COMPLETED.getCode());
                         }
@@ -489,40 +812,18 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
         }
 
         try {
-            // 删除物理文件
-            if (StrUtil.isNotBlank(literature.getFilePath())) {
-                String filePath = literature.getFilePath();
-                java.io.File file;
-
-                // 如果是相对路径，则相对于项目根目录
-                if (filePath.startsWith("./") || !filePath.startsWith("/")) {
-                    // 获取项目根目录
-                    String projectRoot = System.getProperty("user.dir");
-                    file = FileUtil.file(projectRoot, filePath);
-                } else {
-                    // 绝对路径直接使用
-                    file = FileUtil.file(filePath);
-                }
-
-                // 删除文件
-                if (file.exists()) {
-                    boolean deleted = FileUtil.del(file);
-                    if (deleted) {
-                        log.info("文献物理文件删除成功，路径: {}", file.getAbsolutePath());
-                    } else {
-                        log.warn("文献物理文件删除失败，路径: {}", file.getAbsolutePath());
-                        // 文件删除失败不影响数据库记录删除，只记录警告
-                    }
-                } else {
-                    log.warn("文献物理文件不存在，路径: {}", file.getAbsolutePath());
-                }
-            }
-
-            // 删除数据库记录
+            // 先删除数据库记录
             boolean removed = this.removeById(id);
             if (!removed) {
                 throw new BusinessException(ResultCode.BUSINESS_ERROR, "删除文献数据库记录失败");
             }
+            literatureTagService.deleteTags(id);
+            literatureSearchIndex.delete(id);
+
+            // 删除物理文件（去重后多条记录可能共享同一文件，仍被引用时保留）
+            if (StrUtil.isNotBlank(literature.getFilePath())) {
+                deleteStoredFileIfUnreferenced(literature.getFilePath());
+            }
 
             log.info("文献删除成功，ID: {}, 文件名: {}", id, literature.getOriginalName());
 
@@ -535,6 +836,84 @@ public class LiteratureServiceImpl extends ServiceImpl<LiteratureMapper, Literat
         }
     }
 
+    /**
+     * 已存储的文件不再被任何文献引用时删除
+     * <p>
+     * 在文献记录删除提交之后统计剩余引用：并发删除共享同一文件的记录时，至少最后一个能看到引用数为 0；
+     * 统计和删除与 {@link #shareStoredFile} 按文件路径互斥，新记录改为引用该文件后不会再被删除。
+     */
+    private void deleteStoredFileIfUnreferenced(String filePath) {
+        synchronized (fileLock(filePath)) {
+            boolean fileShared = this.lambdaQuery()
+                    .eq(Literature::getFilePath, filePath)
+                    .count() > 0;
+            if (fileShared) {
+                log.info("文献物理文件仍被其他文献引用，跳过删除，路径: {}", filePath);
+                return;
+            }
+
+            java.io.File file;
+
+            // 如果是相对路径，则相对于项目根目录
+            if (filePath.startsWith("./") || !filePath.startsWith("/")) {
+                // 获取项目根目录
+                String projectRoot = System.getProperty("user.dir");
+                file = FileUtil.file(projectRoot, filePath);
+            } else {
+                // 绝对路径直接使用
+                file = FileUtil.file(filePath);
+            }
+
+            // 删除文件
+            if (file.exists()) {
+                boolean deleted = FileUtil.del(file);
+                if (deleted) {
+                    extractedTextStore.delete(filePath);
+                    fileETagResolver.evict(file);
+                    log.info("文献物理文件删除成功，路径: {}", file.getAbsolutePath());
+                } else {
+                    log.warn("文献物理文件删除失败，路径: {}", file.getAbsolutePath());
+                    // 文件删除失败不影响数据库记录删除，只记录警告
+                }
+            } else {
+                log.warn("文献物理文件不存在，路径: {}", file.getAbsolutePath());
+            }
+        }
+    }
+
+    @Override
+    public String shareStoredFile(Long literatureId, String uploadedFilePath, String existingFilePath) {
+        if (StrUtil.isBlank(existingFilePath) || existingFilePath.equals(uploadedFilePath)) {
+            return uploadedFilePath;
+        }
+        synchronized (fileLock(existingFilePath)) {
+            // 已存在的文件可能随来源文献一起被删除，此时保留本次上传的副本
+            if (!Files.exists(Paths.get(existingFilePath))) {
+                log.warn("已存储的相同文件不存在，保留本次上传的副本: {}", existingFilePath);
+                return uploadedFilePath;
+            }
+            Literature literature = new Literature();
+            literature.setId(literatureId);
+            literature.setFilePath(existingFilePath);
+            this.updateById(literature);
+        }
+        fileProcessingService.deleteFile(uploadedFilePath);
+        log.info("检测到重复文件，复用已存储文件: {}, 文献ID: {}", existingFilePath, literatureId);
+        return existingFilePath;
+    }
+
+    private static Object[] createFileLocks() {
+        Object[] locks = new Object[FILE_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private Object fileLock(String filePath) {
+        return fileLocks[Math.floorMod(filePath.hashCode(), fileLocks.length)];
+    }
+
     /**
      * 获取状态描述
      */
@@ -0,0 +1,434 @@
+package com.yuyuan.literature.service.search;
+
+import cn.hutool.core.util.StrUtil;
+import com.yuyuan.literature.entity.Literature;
+import com.yuyuan.literature.mapper.LiteratureMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.cjk.CJKBigramFilter;
+import org.apache.lucene.analysis.cjk.CJKWidthFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文献全文索引
+ * <p>
+ * 使用嵌入式 Lucene 为文件名、描述和阅读指南建立倒排索引，替代 LIKE '%关键词%' 的全表扫描。
+ * 中日韩文字按二元组（bigram）切分，索引时额外输出单字，单字关键词也能命中；英文按单词切分并转为小写，
+ * 查询时长度不少于 {@value #MIN_PREFIX_LENGTH} 的拉丁字母/数字词项同时按前缀匹配（"learn" 命中 "learning"），
+ * 但不做词中子串匹配（"earn" 不命中 "learning"）。
+ * 文献新增、更新阅读指南、更新分类和删除时同步更新索引（近实时可见，不逐条提交），
+ * 由后台任务定期提交并重试失败的更新；正常关闭时写入“干净”标记，启动时标记缺失（异常退出、
+ * 存在未能重试成功的更新）或文档数与数据库不一致则重建。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LiteratureSearchIndex {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_GUIDE = "guide";
+
+    private static final int REBUILD_BATCH_SIZE = 200;
+
+    /**
+     * 按前缀匹配的最短词项长度，过短的前缀会展开过多词项
+     */
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    /**
+     * 提交数据中的干净标记：只在正常关闭且没有待重试的更新时为 true
+     */
+    private static final String COMMIT_CLEAN = "clean";
+
+    private final LiteratureMapper literatureMapper;
+
+    @Value("${literature.search.index-path:./data/search-index}")
+    private String indexPath;
+
+    /**
+     * 需要在数据库中继续过滤或排序时，单次检索返回的最大命中数
+     */
+    @Value("${literature.search.max-results:1000}")
+    private int maxResults;
+
+    /**
+     * 定期提交索引和重试失败更新的间隔（毫秒）
+     */
+    @Value("${literature.search.commit-interval:5000}")
+    private long commitInterval;
+
+    private final Analyzer indexAnalyzer = cjkAnalyzer(true);
+    private final Analyzer queryAnalyzer = cjkAnalyzer(false);
+
+    private Directory directory;
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+    private ScheduledExecutorService committer;
+
+    /**
+     * 上次关闭时索引是否与数据库一致
+     */
+    private boolean cleanOnOpen;
+
+    /**
+     * 更新失败、等待重试的文献ID
+     */
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = FSDirectory.open(Paths.get(indexPath));
+        IndexWriterConfig config = new IndexWriterConfig(indexAnalyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        indexWriter = new IndexWriter(directory, config);
+        cleanOnOpen = readCommitClean();
+        // 运行期间的提交都标记为不干净，异常退出后下次启动重建
+        setCommitClean(false);
+        searcherManager = new SearcherManager(indexWriter, null);
+
+        committer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("search-index-commit").daemon().factory());
+        committer.scheduleWithFixedDelay(this::flush, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+        log.info("全文索引已打开，路径: {}, 文档数: {}", indexPath, indexWriter.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        committer.shutdown();
+        try {
+            committer.awaitTermination(commitInterval, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        retryPending();
+        setCommitClean(pendingIds.isEmpty());
+        indexWriter.commit();
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    /**
+     * 启动完成后校验索引：上次未正常关闭、存在未能重试成功的更新或文档数与数据库不一致时重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        try {
+            long expected = literatureMapper.selectCount(null);
+            int actual = indexWriter.getDocStats().numDocs;
+            if (!cleanOnOpen) {
+                log.info("全文索引上次未正常关闭或存在未完成的更新，开始重建");
+                rebuild();
+            } else if (expected != actual) {
+                log.info("全文索引与数据库不一致，开始重建，索引文档数: {}, 文献数: {}", actual, expected);
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("全文索引校验失败", e);
+        }
+    }
+
+    /**
+     * 重试失败的更新并提交索引（后台定期执行）
+     */
+    private void flush() {
+        try {
+            retryPending();
+            if (indexWriter.hasUncommittedChanges()) {
+                indexWriter.commit();
+            }
+        } catch (Exception e) {
+            log.error("提交全文索引失败", e);
+        }
+    }
+
+    /**
+     * 按数据库中的最新内容重试失败的更新，文献已删除时删除索引
+     */
+    private void retryPending() {
+        for (Long id : List.copyOf(pendingIds)) {
+            pendingIds.remove(id);
+            Literature literature;
+            try {
+                literature = literatureMapper.selectLiteratureDetail(id);
+            } catch (RuntimeException e) {
+                log.warn("读取待重试的文献失败，文献ID: {}", id, e);
+                pendingIds.add(id);
+                continue;
+            }
+            if (literature == null) {
+                delete(id);
+            } else {
+                index(literature);
+            }
+        }
+    }
+
+    private boolean readCommitClean() {
+        Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (COMMIT_CLEAN.equals(entry.getKey())) {
+                    return Boolean.parseBoolean(entry.getValue());
+                }
+            }
+        }
+        return false;
+    }
+
+    private void setCommitClean(boolean clean) {
+        indexWriter.setLiveCommitData(Map.of(COMMIT_CLEAN, Boolean.toString(clean)).entrySet());
+    }
+
+    /**
+     * 从数据库重建索引
+     */
+    public void rebuild() throws IOException {
+        long start = System.currentTimeMillis();
+        indexWriter.deleteAll();
+
+        long lastId = 0;
+        int count = 0;
+        while (true) {
+            List<Literature> batch = literatureMapper.selectForSearchIndex(lastId, REBUILD_BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Literature literature : batch) {
+                indexWriter.addDocument(toDocument(literature));
+            }
+            count += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+
+        pendingIds.clear();
+        indexWriter.commit();
+        searcherManager.maybeRefresh();
+        log.info("全文索引重建完成，文档数: {}, 耗时: {}ms", count, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 新增或更新文献索引，近实时可见，由后台任务定期提交；失败时记录并在后台按数据库内容重试
+     *
+     * @param literature 文献（需包含文件名、描述和阅读指南）
+     */
+    public void index(Literature literature) {
+        if (literature == null || literature.getId() == null) {
+            return;
+        }
+        try {
+            indexWriter.updateDocument(new Term(FIELD_ID, literature.getId().toString()), toDocument(literature));
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            log.error("更新全文索引失败，稍后重试，文献ID: {}", literature.getId(), e);
+            pendingIds.add(literature.getId());
+        }
+    }
+
+    /**
+     * 删除文献索引，失败时记录并在后台重试
+     *
+     * @param id 文献ID
+     */
+    public void delete(Long id) {
+        try {
+            indexWriter.deleteDocuments(new Term(FIELD_ID, id.toString()));
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            log.error("删除全文索引失败，稍后重试，文献ID: {}", id, e);
+            pendingIds.add(id);
+        }
+    }
+
+    /**
+     * 按关键词检索，返回相关度最高的前 max-results 条命中，用于在数据库中继续过滤或排序
+     *
+     * @param keyword 关键词
+     * @return 按相关度降序排列的文献ID和总命中数，总命中数超过 max-results 时结果被截断
+     */
+    public SearchHits search(String keyword) {
+        return search(keyword, 0, maxResults);
+    }
+
+    /**
+     * 按关键词检索一页，分页和计数都在索引中完成
+     *
+     * @param keyword 关键词
+     * @param offset  跳过的命中数
+     * @param limit   返回的最大命中数
+     * @return 该页按相关度降序排列的文献ID和总命中数
+     */
+    public SearchHits search(String keyword, int offset, int limit) {
+        Query query = buildQuery(keyword);
+        if (query == null) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // TopDocs 的命中数只是下限，总数单独精确统计
+                int total = searcher.count(query);
+                if (offset >= total) {
+                    return new SearchHits(List.of(), total);
+                }
+                TopDocs topDocs = searcher.search(query, Math.min(offset + limit, total));
+                ScoreDoc[] hits = topDocs.scoreDocs;
+                List<Long> ids = new ArrayList<>(Math.max(0, hits.length - offset));
+                for (int i = offset; i < hits.length; i++) {
+                    ids.add(Long.parseLong(searcher.storedFields().document(hits[i].doc).get(FIELD_ID)));
+                }
+                return new SearchHits(ids, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("全文检索失败", e);
+        }
+    }
+
+    /**
+     * 任一字段包含全部词项即命中，文件名和描述命中的权重更高
+     */
+    private Query buildQuery(String keyword) {
+        List<String> terms = analyze(keyword);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        return new BooleanQuery.Builder()
+                .add(new BoostQuery(allTermsQuery(FIELD_NAME, terms), 3f), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(allTermsQuery(FIELD_DESCRIPTION, terms), 2f), BooleanClause.Occur.SHOULD)
+                .add(allTermsQuery(FIELD_GUIDE, terms), BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    private static Query allTermsQuery(String field, List<String> terms) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String term : terms) {
+            builder.add(termQuery(field, term), BooleanClause.Occur.MUST);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 单个词项的查询：拉丁字母/数字词项同时按前缀匹配，完整匹配的词项得分更高（前缀查询为常数得分）
+     */
+    private static Query termQuery(String field, String term) {
+        TermQuery exact = new TermQuery(new Term(field, term));
+        if (!isPrefixable(term)) {
+            return exact;
+        }
+        return new BooleanQuery.Builder()
+                .add(exact, BooleanClause.Occur.SHOULD)
+                .add(new PrefixQuery(new Term(field, term)), BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    private static boolean isPrefixable(String term) {
+        if (term.length() < MIN_PREFIX_LENGTH) {
+            return false;
+        }
+        return term.codePoints().allMatch(codePoint -> Character.isDigit(codePoint)
+                || Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.LATIN);
+    }
+
+    private List<String> analyze(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        try (TokenStream tokenStream = queryAnalyzer.tokenStream(FIELD_GUIDE, text)) {
+            CharTermAttribute termAttribute = tokenStream.addAttribute(CharTermAttribute.class);
+            tokenStream.reset();
+            while (tokenStream.incrementToken()) {
+                terms.add(termAttribute.toString());
+            }
+            tokenStream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static Document toDocument(Literature literature) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, literature.getId().toString(), Field.Store.YES));
+        document.add(new TextField(FIELD_NAME, StrUtil.nullToEmpty(literature.getOriginalName()), Field.Store.NO));
+        document.add(new TextField(FIELD_DESCRIPTION, StrUtil.nullToEmpty(literature.getDescription()), Field.Store.NO));
+        document.add(new TextField(FIELD_GUIDE, StrUtil.nullToEmpty(literature.getReadingGuide()), Field.Store.NO));
+        return document;
+    }
+
+    /**
+     * 中日韩二元组分词器
+     *
+     * @param outputUnigrams 是否同时输出单字（索引时开启，查询时关闭，单独的汉字仍会作为单字输出）
+     */
+    private static Analyzer cjkAnalyzer(boolean outputUnigrams) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                TokenStream result = new CJKWidthFilter(source);
+                result = new LowerCaseFilter(result);
+                result = new CJKBigramFilter(result, CJKBigramFilter.HAN | CJKBigramFilter.HIRAGANA
+                        | CJKBigramFilter.KATAKANA | CJKBigramFilter.HANGUL, outputUnigrams);
+                return new TokenStreamComponents(source, result);
+            }
+        };
+    }
+
+    /**
+     * 检索结果
+     *
+     * @param ids       按相关度降序排列的文献ID
+     * @param totalHits 总命中数（不受分页和 max-results 限制）
+     */
+    public record SearchHits(List<Long> ids, long totalHits) {
+    }
+}
@@ -0,0 +1,78 @@
+package db.migration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yuyuan.literature.service.LiteratureTagService;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 按文献的 tags 字段重建标签关联表
+ * <p>
+ * 替代启动时“关联表为空才补齐”的判断：补齐只执行一次，完成状态由 Flyway 记录。
+ * 关联表中已有部分数据或旧版本截断的标签时，也会重建为与 tags 字段一致的结果，
+ * 规范化规则与 {@link LiteratureTagService#normalizeTags(List)} 相同。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+public class V8__Backfill_literature_tag extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 200;
+
+    private static final TypeReference<List<String>> TAG_LIST = new TypeReference<>() {
+    };
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM literature_tag");
+        }
+
+        int count = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet resultSet = select.executeQuery(
+                     "SELECT id, tags FROM literature WHERE deleted = 0 AND tags IS NOT NULL ORDER BY id");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO literature_tag (literature_id, tag) VALUES (?, ?)")) {
+            int pending = 0;
+            while (resultSet.next()) {
+                long literatureId = resultSet.getLong(1);
+                List<String> tags;
+                try {
+                    tags = objectMapper.readValue(resultSet.getString(2), TAG_LIST);
+                } catch (JsonProcessingException e) {
+                    log.warn("文献标签格式错误，跳过补齐，文献ID: {}", literatureId);
+                    continue;
+                }
+                for (String tag : LiteratureTagService.normalizeTags(tags)) {
+                    insert.setLong(1, literatureId);
+                    insert.setString(2, tag);
+                    insert.addBatch();
+                    count++;
+                    if (++pending == BATCH_SIZE) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+
+        log.info("标签关联表补齐完成，标签数: {}", count);
+    }
+}
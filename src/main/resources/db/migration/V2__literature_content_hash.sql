@@ -0,0 +1,3 @@
+-- 文件内容哈希（重复上传复用已存储文件和阅读指南）
+ALTER TABLE literature ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+CREATE INDEX IF NOT EXISTS idx_literature_content_hash ON literature (content_hash);
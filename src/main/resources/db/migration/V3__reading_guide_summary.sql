@@ -0,0 +1,9 @@
+-- 阅读指南摘要（列表查询不再读取完整阅读指南），为已有数据补齐
+ALTER TABLE literature ADD COLUMN IF NOT EXISTS reading_guide_summary VARCHAR(1000);
+UPDATE literature
+SET reading_guide_summary = CASE
+                                WHEN LENGTH(reading_guide) > 200 THEN CONCAT(SUBSTRING(reading_guide, 1, 200), '...')
+                                ELSE reading_guide END
+WHERE reading_guide_summary IS NULL
+  AND reading_guide IS NOT NULL
+  AND LENGTH(reading_guide) > 0;
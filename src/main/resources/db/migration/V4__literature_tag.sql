@@ -0,0 +1,9 @@
+-- 文献标签关联表（按标签筛选和统计走索引，不再对 tags JSON 做 LIKE 扫描）
+-- 已有数据由 LiteratureTagService 在启动时从 tags 字段补齐
+CREATE TABLE IF NOT EXISTS literature_tag
+(
+    literature_id BIGINT       NOT NULL,
+    tag           VARCHAR(200) NOT NULL,
+    PRIMARY KEY (literature_id, tag)
+);
+CREATE INDEX IF NOT EXISTS idx_literature_tag_tag ON literature_tag (tag, literature_id);
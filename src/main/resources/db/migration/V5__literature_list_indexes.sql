@@ -0,0 +1,5 @@
+-- 列表查询索引：所有查询都带 deleted = 0，默认按 create_time 倒序
+DROP INDEX IF EXISTS idx_literature_create_time_id;
+CREATE INDEX IF NOT EXISTS idx_literature_deleted_create_time ON literature (deleted, create_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_literature_status ON literature (deleted, status, create_time DESC);
+CREATE INDEX IF NOT EXISTS idx_literature_file_type ON literature (deleted, file_type, create_time DESC);
@@ -0,0 +1,15 @@
+-- 阅读指南拆分到独立的内容表，literature 行只保留列表和状态更新用到的小字段
+CREATE TABLE IF NOT EXISTS literature_content
+(
+    literature_id BIGINT PRIMARY KEY,
+    reading_guide CLOB,
+    update_time   TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO literature_content (literature_id, reading_guide, update_time)
+SELECT l.id, l.reading_guide, l.update_time
+FROM literature l
+WHERE l.reading_guide IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM literature_content c WHERE c.literature_id = l.id);
+
+ALTER TABLE literature DROP COLUMN IF EXISTS reading_guide;
@@ -0,0 +1,2 @@
+-- 文件路径索引：去重后多条记录共享同一文件，删除文献时按路径统计剩余引用
+CREATE INDEX IF NOT EXISTS idx_literature_file_path ON literature (file_path, deleted);
@@ -0,0 +1,198 @@
+package com.yuyuan.literature.common.sse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 可续传 SSE 事件流测试
+ * <p>
+ * 使用记录事件的 SseEmitter 替代真实连接；与 Spring 一致，send 和 complete 持有同一把锁。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+class ResumableSseStreamTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Test
+    void resumeReplaysEventsAfterLastEventId() throws Exception {
+        ResumableSseStream stream = new ResumableSseStream("s1", SseContentProtocol.LEGACY, 16);
+        stream.send("progress", "a");
+        stream.send("progress", "b");
+        stream.send("progress", "c");
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertTrue(stream.attach(emitter, 1L));
+        stream.send("progress", "d");
+        stream.complete();
+
+        assertNull(emitter.awaitClosed());
+        assertEquals(List.of("2:progress:b", "3:progress:c", "4:progress:d"), emitter.events);
+    }
+
+    @Test
+    void resumeFromEvictedEventIsRejected() {
+        ResumableSseStream stream = new ResumableSseStream("s1", SseContentProtocol.LEGACY, 2);
+        for (int i = 0; i < 4; i++) {
+            stream.send("progress", "e" + i);
+        }
+
+        assertFalse(stream.attach(new RecordingEmitter(), 1L));
+        assertTrue(stream.attach(new RecordingEmitter(), 2L));
+    }
+
+    @Test
+    void firstAttachReceivesSnapshotOfEvictedContent() throws Exception {
+        ResumableSseStream stream = new ResumableSseStream("s1", SseContentProtocol.JSON, 2);
+        stream.sendContent("content", "ab");
+        stream.sendContent("content", "cd");
+        stream.sendContent("content", "ef");
+        stream.sendContent("content", "gh");
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertTrue(stream.attach(emitter, null));
+        stream.complete();
+
+        assertNull(emitter.awaitClosed());
+        assertEquals(List.of(
+                "2:content:{\"s\":1,\"d\":\"abcd\"}",
+                "3:content:{\"s\":2,\"d\":\"ef\"}",
+                "4:content:{\"s\":3,\"d\":\"gh\"}"), emitter.events);
+    }
+
+    @Test
+    void attachAfterFinishReplaysAndClosesWithFailure() throws Exception {
+        ResumableSseStream stream = new ResumableSseStream("s1", SseContentProtocol.LEGACY, 16);
+        stream.send("progress", "a");
+        stream.send("error", "failed");
+        IllegalStateException failure = new IllegalStateException("failed");
+        stream.completeWithError(failure);
+        stream.send("progress", "ignored");
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertTrue(stream.attach(emitter, null));
+
+        assertSame(failure, emitter.awaitClosed());
+        assertEquals(List.of("1:progress:a", "2:error:failed"), emitter.events);
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWithoutBlockingWriterOrOtherSubscribers() throws Exception {
+        ResumableSseStream stream = new ResumableSseStream("s1", SseContentProtocol.LEGACY, 2);
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.gate = new CountDownLatch(1);
+        RecordingEmitter fast = new RecordingEmitter();
+        assertTrue(stream.attach(slow, null));
+        assertTrue(stream.attach(fast, null));
+
+        // 慢客户端的发送线程阻塞在第一个事件上，持有 emitter 的锁
+        stream.send("progress", "e1");
+        assertTrue(slow.sending.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        fast.awaitEvents(1);
+
+        // 待发送队列上限为容量 + 1，继续写入使慢客户端溢出；写入端不能等待慢连接
+        assertTimeoutPreemptively(Duration.ofSeconds(TIMEOUT_SECONDS), () -> {
+            for (int i = 2; i <= 6; i++) {
+                stream.send("progress", "e" + i);
+                fast.awaitEvents(i);
+            }
+            stream.complete();
+        });
+
+        assertNull(fast.awaitClosed());
+        assertEquals(6, fast.events.size());
+        assertFalse(slow.closed.isDone());
+
+        // 阻塞的发送结束后，慢客户端被关闭，未发送的事件被丢弃
+        slow.gate.countDown();
+        assertNull(slow.awaitClosed());
+        assertEquals(List.of("1:progress:e1"), slow.events);
+    }
+
+    /**
+     * 记录发送事件的 SseEmitter，可让发送阻塞以模拟停滞的连接
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Throwable> closed = new CompletableFuture<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            events.add(format(builder));
+        }
+
+        @Override
+        public synchronized void complete() {
+            closed.complete(null);
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            closed.complete(ex);
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (events.size() < count) {
+                assertTrue(System.nanoTime() < deadline, "未在超时前收到 " + count + " 个事件");
+                Thread.sleep(1);
+            }
+        }
+
+        Throwable awaitClosed() throws Exception {
+            return closed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        /**
+         * 将事件格式化为 "id:name:data"
+         */
+        private static String format(SseEventBuilder builder) {
+            StringBuilder raw = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                raw.append(part.getData());
+            }
+            String id = null;
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            for (String line : raw.toString().split("\n")) {
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring(5));
+                }
+            }
+            return id + ":" + name + ":" + data;
+        }
+    }
+}
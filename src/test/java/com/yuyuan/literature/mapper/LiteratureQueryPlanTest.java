@@ -0,0 +1,181 @@
+package com.yuyuan.literature.mapper;
+
+import com.yuyuan.literature.common.request.PageCursor;
+import com.yuyuan.literature.dto.LiteratureQueryRequest;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 文献列表查询执行计划测试
+ * <p>
+ * 从 MyBatis 取出实际生成的 SQL，在内存 H2 上执行 EXPLAIN，确认列表查询走索引而不是全表扫描。
+ * 修改 LiteratureMapper.xml 或 db/migration 中的索引后，如果查询退化为全表扫描，该测试会失败。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plan;DB_CLOSE_DELAY=-1",
+        "literature.ai.http.warm-up=false",
+        "literature.search.index-path=target/query-plan-test/search-index"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LiteratureQueryPlanTest {
+
+    private static final String MAPPER = LiteratureMapper.class.getName();
+    private static final int ROWS = 5000;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> literatureRows = new ArrayList<>(ROWS);
+        List<Object[]> tagRows = new ArrayList<>(ROWS * 2);
+        for (int i = 1; i <= ROWS; i++) {
+            // 大部分记录已完成、为 PDF，少量为处理失败或 docx；约 10% 已删除
+            int status = i % 50 == 0 ? 2 : 1;
+            String fileType = i % 40 == 0 ? "docx" : "pdf";
+            int deleted = i % 10 == 0 ? 1 : 0;
+            Timestamp createTime = Timestamp.valueOf(BASE_TIME.plusHours(i * 3L));
+            literatureRows.add(new Object[]{(long) i, "文献" + i + "." + fileType, "./uploads/" + i, 1024L,
+                    fileType, status, deleted, createTime, createTime});
+            tagRows.add(new Object[]{(long) i, "标签" + (i % 50)});
+            tagRows.add(new Object[]{(long) i, "主题" + (i % 7)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO literature (id, original_name, file_path, file_size, file_type, "
+                + "status, deleted, create_time, update_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", literatureRows);
+        jdbcTemplate.batchUpdate("INSERT INTO literature_tag (literature_id, tag) VALUES (?, ?)", tagRows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void defaultListingUsesCreateTimeIndex() throws SQLException {
+        String plan = explain("selectLiteraturePage", params(new LiteratureQueryRequest()));
+
+        assertUsesIndex(plan, "IDX_LITERATURE_DELETED_CREATE_TIME");
+    }
+
+    @Test
+    void cursorSeekUsesCreateTimeIndex() throws SQLException {
+        Map<String, Object> params = params(new LiteratureQueryRequest());
+        params.put("cursor", new PageCursor(BASE_TIME.plusHours(6000), 2000L, false));
+        params.put("asc", false);
+        params.put("limit", 21);
+
+        String plan = explain("selectLiteratureByCursor", params);
+
+        assertUsesIndex(plan, "IDX_LITERATURE_DELETED_CREATE_TIME");
+    }
+
+    @Test
+    void dateRangeIsSargable() throws SQLException {
+        LiteratureQueryRequest request = new LiteratureQueryRequest();
+        request.setStartDate("2024-03-01");
+        request.setEndDate("2024-03-31");
+
+        String plan = explain("selectLiteraturePage", params(request));
+
+        assertFalse(plan.toUpperCase(Locale.ROOT).contains("CAST(\"CREATE_TIME\""), plan);
+        assertUsesIndex(plan, "IDX_LITERATURE_DELETED_CREATE_TIME");
+    }
+
+    @Test
+    void statusFilterUsesStatusIndex() throws SQLException {
+        LiteratureQueryRequest request = new LiteratureQueryRequest();
+        request.setStatus(2);
+
+        assertUsesIndex(explain("selectLiteraturePage", params(request)), "IDX_LITERATURE_STATUS");
+    }
+
+    @Test
+    void fileTypeFilterUsesFileTypeIndex() throws SQLException {
+        LiteratureQueryRequest request = new LiteratureQueryRequest();
+        request.setFileType("docx");
+
+        assertUsesIndex(explain("selectLiteraturePage", params(request)), "IDX_LITERATURE_FILE_TYPE");
+    }
+
+    @Test
+    void tagFilterDoesNotScanTagTable() throws SQLException {
+        LiteratureQueryRequest request = new LiteratureQueryRequest();
+        request.setTags(List.of("标签3", "标签7"));
+
+        String plan = explain("countLiterature", params(request));
+
+        assertTrue(plan.toUpperCase(Locale.ROOT).contains("LITERATURE_TAG"), plan);
+        assertFalse(plan.toUpperCase(Locale.ROOT).contains("LITERATURE_TAG.TABLESCAN"), plan);
+    }
+
+    @Test
+    void relevancePageLoadsRowsByPrimaryKey() throws SQLException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ids", List.of(11L, 42L, 4999L));
+
+        assertUsesIndex(explain("selectLiteratureByIds", params), "PRIMARY_KEY");
+    }
+
+    private static Map<String, Object> params(LiteratureQueryRequest request) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("req", request);
+        params.put("matchedIds", null);
+        return params;
+    }
+
+    /**
+     * 生成语句的 SQL 并执行 EXPLAIN
+     */
+    private String explain(String statementId, Map<String, Object> params) throws SQLException {
+        MappedStatement statement = sqlSessionFactory.getConfiguration().getMappedStatement(MAPPER + "." + statementId);
+        BoundSql boundSql = statement.getBoundSql(params);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            new DefaultParameterHandler(statement, params, boundSql).setParameters(preparedStatement);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        }
+    }
+
+    private static void assertUsesIndex(String plan, String indexName) {
+        String normalized = plan.toUpperCase(Locale.ROOT);
+        assertTrue(normalized.contains(indexName), () -> "执行计划未使用索引 " + indexName + ":\n" + plan);
+        assertFalse(normalized.contains("LITERATURE.TABLESCAN"), () -> "执行计划包含全表扫描:\n" + plan);
+    }
+}
@@ -0,0 +1,123 @@
+package com.yuyuan.literature.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * PDF 并行解析测试与基准
+ * <p>
+ * 基准测试默认跳过，使用 {@code mvn test -Dtest=PdfExtractionBenchmarkTest -Dbenchmark=true} 运行。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+class PdfExtractionBenchmarkTest {
+
+    private static final int LINES_PER_PAGE = 40;
+
+    @TempDir
+    Path tempDir;
+
+    private FileProcessingService sequentialService;
+    private FileProcessingService parallelService;
+
+    @AfterEach
+    void tearDown() {
+        if (sequentialService != null) {
+            sequentialService.destroy();
+        }
+        if (parallelService != null) {
+            parallelService.destroy();
+        }
+    }
+
+    @Test
+    void parallelExtractionMatchesSequential() throws IOException {
+        File pdf = createPdf(45);
+        sequentialService = createService(Integer.MAX_VALUE);
+        parallelService = createService(1);
+
+        String sequential = sequentialService.extractFileContent(pdf.getPath());
+        String parallel = parallelService.extractFileContent(pdf.getPath());
+
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void throughputByPageCount() throws IOException {
+        sequentialService = createService(Integer.MAX_VALUE);
+        parallelService = createService(1);
+
+        System.out.printf("%8s %16s %16s %10s%n", "pages", "sequential p/s", "parallel p/s", "speedup");
+        for (int pages : new int[]{10, 50, 100, 200, 400}) {
+            File pdf = createPdf(pages);
+            // 预热
+            sequentialService.extractFileContent(pdf.getPath());
+            parallelService.extractFileContent(pdf.getPath());
+
+            long sequentialNanos = bestOf(3, sequentialService, pdf);
+            long parallelNanos = bestOf(3, parallelService, pdf);
+
+            System.out.printf("%8d %16.1f %16.1f %9.2fx%n", pages,
+                    pages / (sequentialNanos / 1e9), pages / (parallelNanos / 1e9),
+                    (double) sequentialNanos / parallelNanos);
+        }
+    }
+
+    private long bestOf(int rounds, FileProcessingService service, File pdf) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            service.extractFileContent(pdf.getPath());
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private FileProcessingService createService(int pageThreshold) {
+        FileProcessingService service = new FileProcessingService();
+        ReflectionTestUtils.setField(service, "pdfParallelPageThreshold", pageThreshold);
+        ReflectionTestUtils.setField(service, "pdfPagesPerTask", 20);
+        ReflectionTestUtils.setField(service, "pdfParallelThreads", 0);
+        service.init();
+        return service;
+    }
+
+    private File createPdf(int pageCount) throws IOException {
+        File file = tempDir.resolve("benchmark-" + pageCount + ".pdf").toFile();
+        try (PDDocument document = new PDDocument()) {
+            for (int pageIndex = 1; pageIndex <= pageCount; pageIndex++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                    contentStream.beginText();
+                    contentStream.setFont(PDType1Font.HELVETICA, 10);
+                    contentStream.setLeading(14);
+                    contentStream.newLineAtOffset(50, 750);
+                    for (int line = 1; line <= LINES_PER_PAGE; line++) {
+                        contentStream.showText("Page " + pageIndex + " line " + line
+                                + " - The quick brown fox jumps over the lazy dog.");
+                        contentStream.newLine();
+                    }
+                    contentStream.endText();
+                }
+            }
+            document.save(file);
+        }
+        return file;
+    }
+}
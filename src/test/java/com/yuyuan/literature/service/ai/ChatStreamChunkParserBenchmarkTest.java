@@ -0,0 +1,143 @@
+package com.yuyuan.literature.service.ai;
+
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式响应分片解析测试与基准
+ * <p>
+ * 基准测试对比 Hutool 构建 JSONObject 树再取值的原实现，默认跳过，
+ * 使用 {@code mvn test -Dtest=ChatStreamChunkParserBenchmarkTest -Dbenchmark=true} 运行。
+ *
+ * @author Literature Assistant
+ * @since 1.0.0
+ */
+class ChatStreamChunkParserBenchmarkTest {
+
+    private static final String[] DELTAS = {"## 一、文献概述", "\n\n", "  ", "本文提出了", "\"引号\"和\\反斜杠",
+            "emoji 🎉", "Transformer model", "\t缩进\n"};
+
+    @Test
+    void extractsSameContentAsTreeParsing() throws IOException {
+        ChatStreamChunkParser parser = new ChatStreamChunkParser();
+        for (String chunk : sampleChunks()) {
+            assertTrue(parser.parse(chunk));
+            assertEquals(extractWithTree(chunk), parser.getContent(), chunk);
+        }
+    }
+
+    @Test
+    void handlesRoleChunkAndFinishReason() throws IOException {
+        ChatStreamChunkParser parser = new ChatStreamChunkParser();
+
+        assertTrue(parser.parse("{\"id\":\"c1\",\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\"},"
+                + "\"finish_reason\":null}]}"));
+        assertNull(parser.getContent());
+        assertNull(parser.getFinishReason());
+
+        assertTrue(parser.parse("{\"id\":\"c1\",\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"length\","
+                + "\"usage\":{\"prompt_tokens\":10,\"completion_tokens\":20}}]}"));
+        assertNull(parser.getContent());
+        assertEquals("length", parser.getFinishReason());
+    }
+
+    @Test
+    void rejectsChunksWithoutChoices() throws IOException {
+        ChatStreamChunkParser parser = new ChatStreamChunkParser();
+
+        assertFalse(parser.parse("{\"id\":\"c1\",\"choices\":[]}"));
+        assertFalse(parser.parse("{\"error\":{\"message\":\"rate limited\"}}"));
+        assertFalse(parser.parse("[]"));
+        assertThrows(IOException.class, () -> parser.parse("{\"choices\":[{\"delta\":"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void throughputAndAllocation() throws IOException {
+        List<String> chunks = sampleChunks();
+        ChatStreamChunkParser parser = new ChatStreamChunkParser();
+        int iterations = 200_000;
+
+        // 预热
+        for (int i = 0; i < iterations; i++) {
+            String chunk = chunks.get(i % chunks.size());
+            extractWithTree(chunk);
+            parser.parse(chunk);
+        }
+
+        long[] tree = measure(iterations, i -> extractWithTree(chunks.get(i % chunks.size())));
+        long[] streaming = measure(iterations, i -> {
+            parser.parse(chunks.get(i % chunks.size()));
+            return parser.getContent();
+        });
+
+        System.out.printf("%-12s %14s %14s%n", "parser", "ns/chunk", "bytes/chunk");
+        System.out.printf("%-12s %14.1f %14.1f%n", "hutool tree",
+                (double) tree[0] / iterations, (double) tree[1] / iterations);
+        System.out.printf("%-12s %14.1f %14.1f%n", "streaming",
+                (double) streaming[0] / iterations, (double) streaming[1] / iterations);
+    }
+
+    /**
+     * 返回总耗时（纳秒）和当前线程分配的字节数
+     */
+    private static long[] measure(int iterations, ChunkTask task) throws IOException {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        int sink = 0;
+
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            String content = task.run(i);
+            sink += content == null ? 0 : content.length();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(sink > 0);
+        return new long[]{elapsed, allocated};
+    }
+
+    /**
+     * 原实现：构建完整 JSONObject 后提取 choices[0].delta.content
+     */
+    private static String extractWithTree(String data) {
+        JSONObject delta = JSONUtil.parseObj(data).getJSONArray("choices")
+                .getJSONObject(0)
+                .getJSONObject("delta");
+        Object content = delta.get("content");
+        return content == null ? null : content.toString();
+    }
+
+    private static List<String> sampleChunks() {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < DELTAS.length; i++) {
+            String escaped = DELTAS[i].replace("\\", "\\\\").replace("\"", "\\\"")
+                    .replace("\n", "\\n").replace("\t", "\\t");
+            chunks.add("{\"id\":\"chatcmpl-6710d8a1c2\",\"object\":\"chat.completion.chunk\",\"created\":1729000000,"
+                    + "\"model\":\"moonshot-v1-32k\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + escaped
+                    + "\"},\"finish_reason\":null}],\"system_fingerprint\":\"fp_" + i + "\"}");
+        }
+        return chunks;
+    }
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        String run(int iteration) throws IOException;
+    }
+}